@@ -1,7 +1,26 @@
 package designpattern.iterator;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public interface BasicList<T> extends Iterable<T> {
 	T get(int i);
 	void add(T value);
 	int size();
+
+	// implementations should override this with a balanced split
+	@Override
+	default Spliterator<T> spliterator() {
+		return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+	}
+
+	default Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	default Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
 }
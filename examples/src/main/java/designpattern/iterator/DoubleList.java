@@ -0,0 +1,123 @@
+package designpattern.iterator;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * List of double values backed by a growing double[]: no Double objects are created
+ * by getDouble, addDouble, the iterator's nextDouble or doubleStream.
+ * get/add still work as a BasicList<Double>, but box.
+ */
+public class DoubleList implements BasicList<Double> {
+	private double[] values;
+	private int size;
+
+	public DoubleList() {
+		this(16);
+	}
+
+	public DoubleList(int capacity) {
+		values = new double [Math.max(1, capacity)];
+	}
+
+	public static DoubleList of(double... values) {
+		DoubleList list = new DoubleList(values.length);
+		System.arraycopy(values, 0, list.values, 0, values.length);
+		list.size = values.length;
+		return list;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public double getDouble(int i) {
+		if (i < 0 || i >= size)
+			throw new NoSuchElementException();
+		return values[i];
+	}
+
+	public void addDouble(double value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, 2 * values.length);
+		values[size++] = value;
+	}
+
+	@Override
+	public Double get(int i) {
+		return getDouble(i);
+	}
+
+	@Override
+	public void add(Double value) {
+		addDouble(value);
+	}
+
+	public double[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public PrimitiveIterator.OfDouble iterator() {
+		return new PrimitiveIterator.OfDouble() {
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < size;
+			}
+
+			@Override
+			public double nextDouble() {
+				if (i >= size)
+					throw new NoSuchElementException();
+				return values[i++];
+			}
+		};
+	}
+
+	@Override
+	public Spliterator.OfDouble spliterator() {
+		return Spliterators.spliterator(values, 0, size, Spliterator.ORDERED);
+	}
+
+	public DoubleStream doubleStream() {
+		return StreamSupport.doubleStream(spliterator(), false);
+	}
+
+	public static void main(String[] args) {
+		final int n = 10_000_000;
+		SimpleList<Double> boxed = new SimpleList<>();
+		DoubleList doubles = new DoubleList();
+		for (int i = 0; i < n; i++) {
+			boxed.add(i * 0.5);
+			doubles.addDouble(i * 0.5);
+		}
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			double a = 0;
+			for (double v : boxed)
+				a += v;
+
+			long t1 = System.nanoTime();
+			double b = 0;
+			PrimitiveIterator.OfDouble it = doubles.iterator();
+			while (it.hasNext())
+				b += it.nextDouble();
+
+			long t2 = System.nanoTime();
+			double c = doubles.doubleStream().sum();
+
+			long t3 = System.nanoTime();
+			System.out.printf("SimpleList<Double> %d ms, nextDouble %d ms, doubleStream %d ms (%.1f, %.1f, %.1f)%n",
+					(t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000, a, b, c);
+		}
+	}
+}
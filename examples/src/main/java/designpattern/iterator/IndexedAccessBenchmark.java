@@ -0,0 +1,23 @@
+package designpattern.iterator;
+
+public class IndexedAccessBenchmark {
+	public static void main(String[] args) {
+		for (int n : new int[] {100_000, 1_000_000}) {
+			for (int round = 0; round < 3; round++) {
+				long t0 = System.nanoTime();
+				SimpleList<Integer> list = new SimpleList<>();
+				for (int i = 0; i < n; i++)
+					list.add(i);
+
+				long t1 = System.nanoTime();
+				long sum = 0;
+				for (int i = 0; i < list.size(); i++)
+					sum += list.get(i);
+
+				long t2 = System.nanoTime();
+				System.out.printf("n=%,d: add %d ms, get(i) loop %d ms (sum %d)%n",
+						n, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, sum);
+			}
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package designpattern.iterator;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * List of int values backed by a growing int[]: no Integer objects are created
+ * by getInt, addInt, the iterator's nextInt or intStream.
+ * get/add still work as a BasicList<Integer>, but box.
+ */
+public class IntList implements BasicList<Integer> {
+	private int[] values;
+	private int size;
+
+	public IntList() {
+		this(16);
+	}
+
+	public IntList(int capacity) {
+		values = new int [Math.max(1, capacity)];
+	}
+
+	public static IntList of(int... values) {
+		IntList list = new IntList(values.length);
+		System.arraycopy(values, 0, list.values, 0, values.length);
+		list.size = values.length;
+		return list;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public int getInt(int i) {
+		if (i < 0 || i >= size)
+			throw new NoSuchElementException();
+		return values[i];
+	}
+
+	public void addInt(int value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, 2 * values.length);
+		values[size++] = value;
+	}
+
+	@Override
+	public Integer get(int i) {
+		return getInt(i);
+	}
+
+	@Override
+	public void add(Integer value) {
+		addInt(value);
+	}
+
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < size;
+			}
+
+			@Override
+			public int nextInt() {
+				if (i >= size)
+					throw new NoSuchElementException();
+				return values[i++];
+			}
+		};
+	}
+
+	@Override
+	public Spliterator.OfInt spliterator() {
+		return Spliterators.spliterator(values, 0, size, Spliterator.ORDERED);
+	}
+
+	public IntStream intStream() {
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	public static void main(String[] args) {
+		final int n = 10_000_000;
+		int[] array = new int [n];
+		SimpleList<Integer> boxed = new SimpleList<>();
+		IntList ints = new IntList();
+		for (int i = 0; i < n; i++) {
+			array[i] = i;
+			boxed.add(i);
+			ints.addInt(i);
+		}
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			long a = 0;
+			for (int i = 0; i < array.length; i++)
+				a += array[i];
+
+			long t1 = System.nanoTime();
+			long b = 0;
+			for (int v : boxed)
+				b += v;
+
+			long t2 = System.nanoTime();
+			long c = 0;
+			for (int i = 0; i < ints.size(); i++)
+				c += ints.getInt(i);
+
+			long t3 = System.nanoTime();
+			long d = 0;
+			PrimitiveIterator.OfInt it = ints.iterator();
+			while (it.hasNext())
+				d += it.nextInt();
+
+			long t4 = System.nanoTime();
+			long e = ints.intStream().asLongStream().sum();
+
+			long t5 = System.nanoTime();
+			System.out.printf("int[] %d ms, SimpleList<Integer> %d ms, getInt %d ms, nextInt %d ms, intStream %d ms%s%n",
+					(t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000,
+					(t4 - t3) / 1_000_000, (t5 - t4) / 1_000_000,
+					a == b && b == c && c == d && d == e ? "" : " MISMATCH");
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package designpattern.iterator;
+
+public class ParallelStreams {
+	// deliberately expensive per element
+	static double work(int x) {
+		double d = x;
+		for (int i = 0; i < 8; i++)
+			d = Math.sin(d) + Math.sqrt(Math.abs(d) + i);
+		return d;
+	}
+
+	public static void main(String[] args) {
+		final int n = 10_000_000;
+
+		// cached Integers only, so the lists stay small
+		Integer[] values = new Integer[128];
+		for (int i = 0; i < values.length; i++)
+			values[i] = i;
+
+		UnrolledList<Integer> unrolled = new UnrolledList<>();
+		SimpleList<Integer> simple = new SimpleList<>();
+		for (int i = 0; i < n; i++) {
+			unrolled.add(values[i & 127]);
+			simple.add(values[i & 127]);
+		}
+
+		System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+		for (int round = 0; round < 3; round++) {
+			for (BasicList<Integer> list : java.util.List.<BasicList<Integer>>of(simple, unrolled)) {
+				long t0 = System.nanoTime();
+				double a = list.stream().mapToDouble(ParallelStreams::work).sum();
+				long t1 = System.nanoTime();
+				double b = list.parallelStream().mapToDouble(ParallelStreams::work).sum();
+				long t2 = System.nanoTime();
+				System.out.printf("%-12s sequential %5d ms, parallel %5d ms (speedup %.1fx)%s%n",
+						list.getClass().getSimpleName(), (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000,
+						(double) (t1 - t0) / (t2 - t1), Math.abs(a - b) < 1e-6 * Math.abs(a) ? "" : " MISMATCH");
+			}
+		}
+	}
+}
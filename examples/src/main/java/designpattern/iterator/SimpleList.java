@@ -2,6 +2,8 @@ package designpattern.iterator;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 public class SimpleList<T> implements BasicList<T> {
 	private class Element {
@@ -12,9 +14,13 @@ public class SimpleList<T> implements BasicList<T> {
 		T value;
 	}
 
-	private Element root;
+	private Element root, tail;
 	private int size;
 
+	// last position accessed by get(), so that index loops do not start over
+	private Element cursor;
+	private int cursorIndex;
+
 	@SafeVarargs
 	public SimpleList(T... values) {
 		Element prev = null;
@@ -26,6 +32,7 @@ public class SimpleList<T> implements BasicList<T> {
 				prev = prev.next;
 			}
 		}
+		tail = prev;
 		size = values.length;
 	}
 
@@ -37,32 +44,35 @@ public class SimpleList<T> implements BasicList<T> {
 	@Override
 	public void add(T value) {
 		if (root == null) {
-			root = new Element(value);
+			root = tail = new Element(value);
 			size = 1;
 			return;
 		}
 
-		Element it = root;
-		while (it.next != null)
-			it = it.next;
-
-		it.next = new Element(value);
+		tail.next = new Element(value);
+		tail = tail.next;
 		size = size + 1;
 	}
 
 	@Override
 	public T get(int i) {
-		if (root == null)
+		if (i < 0 || i >= size)
 			throw new NoSuchElementException();
 
+		// continue from the cursor if it is not past i, else from the start
 		Element it = root;
-		while (i-- > 0) {
+		int j = 0;
+		if (cursor != null && cursorIndex <= i) {
+			it = cursor;
+			j = cursorIndex;
+		}
+		while (j < i) {
 			it = it.next;
-
-			if (it == null)
-				throw new NoSuchElementException();
+			j++;
 		}
 
+		cursor = it;
+		cursorIndex = i;
 		return it.value;
 	}
 
@@ -72,7 +82,7 @@ public class SimpleList<T> implements BasicList<T> {
 			Element it = root;
 			@Override
 			public boolean hasNext() {
-				return it == null;
+				return it != null;
 			}
 
 			@Override
@@ -83,4 +93,64 @@ public class SimpleList<T> implements BasicList<T> {
 			}
 		};
 	}
+
+	@Override
+	public Spliterator<T> spliterator() {
+		return new ElementSpliterator(root, size);
+	}
+
+	// covers `remaining` elements starting at `it`; splits in the middle
+	private class ElementSpliterator implements Spliterator<T> {
+		Element it;
+		int remaining;
+
+		ElementSpliterator(Element it, int remaining) {
+			this.it = it;
+			this.remaining = remaining;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (remaining == 0)
+				return false;
+			action.accept(it.value);
+			it = it.next;
+			remaining--;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			for (; remaining > 0; remaining--) {
+				action.accept(it.value);
+				it = it.next;
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			if (remaining < 2)
+				return null;
+
+			int half = remaining / 2;
+			Element mid = it;
+			for (int i = 0; i < half; i++)
+				mid = mid.next;
+
+			ElementSpliterator prefix = new ElementSpliterator(it, half);
+			it = mid;
+			remaining -= half;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED;
+		}
+	}
 }
@@ -0,0 +1,220 @@
+package designpattern.iterator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Linked list of small arrays ("chunks"): far fewer objects than SimpleList,
+ * and neighbouring values sit next to each other in memory.
+ */
+public class UnrolledList<T> implements BasicList<T> {
+	private class Chunk {
+		final Object[] values = new Object[chunkSize];
+		int count;
+		Chunk next;
+	}
+
+	private final int chunkSize;
+	private Chunk root, tail;
+	private int size;
+
+	public UnrolledList() {
+		this(64);
+	}
+
+	public UnrolledList(int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("chunk size must be positive");
+		this.chunkSize = chunkSize;
+	}
+
+	@SafeVarargs
+	public static <T> UnrolledList<T> of(T... values) {
+		UnrolledList<T> list = new UnrolledList<>();
+		for (T v : values)
+			list.add(v);
+		return list;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(T value) {
+		if (tail == null)
+			root = tail = new Chunk();
+		else if (tail.count == chunkSize) {
+			tail.next = new Chunk();
+			tail = tail.next;
+		}
+
+		tail.values[tail.count++] = value;
+		size = size + 1;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		if (i < 0 || i >= size)
+			throw new NoSuchElementException();
+
+		// skip whole chunks: O(n/B)
+		Chunk it = root;
+		while (i >= it.count) {
+			i -= it.count;
+			it = it.next;
+		}
+		return (T) it.values[i];
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			Chunk it = root;
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return it != null && i < it.count;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public T next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				T value = (T) it.values[i++];
+				if (i == it.count) {
+					it = it.next;
+					i = 0;
+				}
+				return value;
+			}
+		};
+	}
+
+	@Override
+	public Spliterator<T> spliterator() {
+		return new ChunkSpliterator(root, 0, size);
+	}
+
+	// covers `remaining` elements starting at chunk.values[i]; splits in the middle
+	private class ChunkSpliterator implements Spliterator<T> {
+		Chunk chunk;
+		int i;
+		int remaining;
+
+		ChunkSpliterator(Chunk chunk, int i, int remaining) {
+			this.chunk = chunk;
+			this.i = i;
+			this.remaining = remaining;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (remaining == 0)
+				return false;
+			if (i == chunk.count) {
+				chunk = chunk.next;
+				i = 0;
+			}
+			action.accept((T) chunk.values[i++]);
+			remaining--;
+			return true;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void forEachRemaining(Consumer<? super T> action) {
+			while (remaining > 0) {
+				if (i == chunk.count) {
+					chunk = chunk.next;
+					i = 0;
+				}
+				int n = Math.min(remaining, chunk.count - i);
+				Object[] values = chunk.values;
+				for (int j = i; j < i + n; j++)
+					action.accept((T) values[j]);
+				i += n;
+				remaining -= n;
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			if (remaining < 2)
+				return null;
+
+			int half = remaining / 2;
+			ChunkSpliterator prefix = new ChunkSpliterator(chunk, i, half);
+
+			// skip whole chunks to the middle
+			int skip = half;
+			while (i + skip >= chunk.count && chunk.next != null) {
+				skip -= chunk.count - i;
+				chunk = chunk.next;
+				i = 0;
+			}
+			i += skip;
+			remaining -= half;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED;
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	public static void main(String[] args) {
+		final int n = 1_000_000;
+
+		// the values are cached Integers, so only the list structure is measured
+		Integer[] values = new Integer[256];
+		for (int i = 0; i < values.length; i++)
+			values[i] = i;
+
+		long m0 = usedMemory();
+		SimpleList<Integer> simple = new SimpleList<>();
+		for (int i = 0; i < n; i++)
+			simple.add(values[i & 255]);
+		long m1 = usedMemory();
+		UnrolledList<Integer> unrolled = new UnrolledList<>();
+		for (int i = 0; i < n; i++)
+			unrolled.add(values[i & 255]);
+		long m2 = usedMemory();
+
+		System.out.printf("memory for %,d elements: SimpleList %,d bytes, UnrolledList %,d bytes%n", n, m1 - m0, m2 - m1);
+
+		for (int round = 0; round < 5; round++) {
+			long t0 = System.nanoTime();
+			long a = 0;
+			for (int v : simple)
+				a += v;
+			long t1 = System.nanoTime();
+			long b = 0;
+			for (int v : unrolled)
+				b += v;
+			long t2 = System.nanoTime();
+			System.out.printf("iteration: SimpleList %.1f ms, UnrolledList %.1f ms (%d, %d)%n",
+					(t1 - t0) / 1e6, (t2 - t1) / 1e6, a, b);
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package fp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Cons list with the same head/tail view as List, stored more compactly:
+ * there is a single shared Nil, and lists built in bulk (of, fromList, from)
+ * keep up to 32 elements per array chunk instead of one cell per element.
+ * cons() still adds a plain cell in front, so the list stays persistent and
+ * shares its rest. Like List, it holds no nulls: null elements are rejected.
+ *
+ * tail() of a chunk has to return a new view on the same array, i.e. it
+ * allocates once per element; it is there for compatibility with List code.
+ * forEach, foldl, length and the iterator walk the arrays with an index and
+ * allocate nothing per element, so they are the way to traverse.
+ */
+abstract class ChunkedList<T> implements Iterable<T> {
+	static final int CHUNK = 32;
+	private static final String NO_NULLS = "ChunkedList elements must not be null";
+
+	private ChunkedList() {
+	}
+
+	private static final class Nil<T> extends ChunkedList<T> {
+		@Override
+		boolean isEmpty() {
+			return true;
+		}
+
+		// like List.empty(): no head and no tail
+		@Override
+		T head() {
+			return null;
+		}
+
+		@Override
+		ChunkedList<T> tail() {
+			return null;
+		}
+	}
+
+	private static final class Cons<T> extends ChunkedList<T> {
+		final T head;
+		final ChunkedList<T> tail;
+
+		Cons(T head, ChunkedList<T> tail) {
+			this.head = head;
+			this.tail = tail;
+		}
+
+		@Override
+		T head() {
+			return head;
+		}
+
+		@Override
+		ChunkedList<T> tail() {
+			return tail;
+		}
+	}
+
+	// elements array[offset..], then next
+	private static final class Chunk<T> extends ChunkedList<T> {
+		final Object[] array;
+		final int offset;
+		final ChunkedList<T> next;
+
+		Chunk(Object[] array, int offset, ChunkedList<T> next) {
+			this.array = array;
+			this.offset = offset;
+			this.next = next;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		T head() {
+			return (T) array[offset];
+		}
+
+		@Override
+		ChunkedList<T> tail() {
+			return offset + 1 < array.length ? new Chunk<>(array, offset + 1, next) : next;
+		}
+	}
+
+	private static final ChunkedList<?> NIL = new Nil<>();
+
+	@SuppressWarnings("unchecked")
+	static <T> ChunkedList<T> nil() {
+		return (ChunkedList<T>) NIL;
+	}
+
+	static <T> ChunkedList<T> cons(T head, ChunkedList<T> tail) {
+		return new Cons<>(Objects.requireNonNull(head, NO_NULLS), tail);
+	}
+
+	// the chunks are copies, so later changes to elements do not show
+	@SafeVarargs
+	static <T> ChunkedList<T> of(T... elements) {
+		ChunkedList<T> xs = nil();
+		for (int hi = elements.length; hi > 0; hi -= CHUNK) {
+			int lo = Math.max(0, hi - CHUNK);
+			Object[] chunk = new Object[hi - lo];
+			for (int i = lo; i < hi; i++)
+				chunk[i - lo] = Objects.requireNonNull(elements[i], NO_NULLS);
+			xs = new Chunk<>(chunk, 0, xs);
+		}
+		return xs;
+	}
+
+	static <T> ChunkedList<T> fromList(List<T> xs) {
+		Builder<T> b = new Builder<>();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			b.add(xs.head);
+		return b.build();
+	}
+
+	static <T> ChunkedList<T> from(Iterable<? extends T> source) {
+		Builder<T> b = new Builder<>();
+		for (T x : source)
+			b.add(x);
+		return b.build();
+	}
+
+	/**
+	 * Fills full chunks front to back; build() links them up from the last
+	 * one, so every chunk is immutable once it is part of a list.
+	 */
+	static final class Builder<T> {
+		private final ArrayList<Object[]> chunks = new ArrayList<>();
+		private Object[] current = new Object[CHUNK];
+		private int n;
+
+		void add(T x) {
+			if (n == CHUNK) {
+				chunks.add(current);
+				current = new Object[CHUNK];
+				n = 0;
+			}
+			current[n++] = Objects.requireNonNull(x, NO_NULLS);
+		}
+
+		ChunkedList<T> build() {
+			ChunkedList<T> xs = nil();
+			if (n > 0)
+				xs = new Chunk<>(n == CHUNK ? current : Arrays.copyOf(current, n), 0, xs);
+			for (int i = chunks.size() - 1; i >= 0; i--)
+				xs = new Chunk<>(chunks.get(i), 0, xs);
+			return xs;
+		}
+	}
+
+	boolean isEmpty() {
+		return false;
+	}
+
+	abstract T head();
+
+	abstract ChunkedList<T> tail();
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		ChunkedList<T> xs = this;
+		while (!xs.isEmpty()) {
+			if (xs instanceof Chunk) {
+				Chunk<T> c = (Chunk<T>) xs;
+				for (int i = c.offset; i < c.array.length; i++)
+					action.accept((T) c.array[i]);
+				xs = c.next;
+			} else {
+				action.accept(xs.head());
+				xs = xs.tail();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	<R> R foldl(R z, BiFunction<R, ? super T, R> op) {
+		ChunkedList<T> xs = this;
+		while (!xs.isEmpty()) {
+			if (xs instanceof Chunk) {
+				Chunk<T> c = (Chunk<T>) xs;
+				for (int i = c.offset; i < c.array.length; i++)
+					z = op.apply(z, (T) c.array[i]);
+				xs = c.next;
+			} else {
+				z = op.apply(z, xs.head());
+				xs = xs.tail();
+			}
+		}
+		return z;
+	}
+
+	@SuppressWarnings("unchecked")
+	int length() {
+		int n = 0;
+		for (ChunkedList<T> xs = this; !xs.isEmpty(); ) {
+			if (xs instanceof Chunk) {
+				Chunk<T> c = (Chunk<T>) xs;
+				n += c.array.length - c.offset;
+				xs = c.next;
+			} else {
+				n++;
+				xs = xs.tail();
+			}
+		}
+		return n;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			ChunkedList<T> xs = ChunkedList.this;
+			Object[] array;  // of the chunk being walked, if any
+			int i;
+
+			@Override
+			public boolean hasNext() {
+				return array != null || !xs.isEmpty();
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public T next() {
+				if (array == null) {
+					if (xs.isEmpty())
+						throw new NoSuchElementException();
+					if (!(xs instanceof Chunk)) {
+						T x = xs.head();
+						xs = xs.tail();
+						return x;
+					}
+					Chunk<T> c = (Chunk<T>) xs;
+					array = c.array;
+					i = c.offset;
+					xs = c.next;
+				}
+				T x = (T) array[i++];
+				if (i == array.length)
+					array = null;
+				return x;
+			}
+		};
+	}
+
+	List<T> toList() {
+		List.Builder<T> b = new List.Builder<>();
+		forEach(b::add);
+		return b.build();
+	}
+
+	@Override
+	public String toString() {
+		// same format as List, without the recursion
+		StringBuilder sb = new StringBuilder();
+		int n = 0;
+		for (T x : this) {
+			sb.append("(").append(x).append(" ");
+			n++;
+		}
+		sb.append("nil");
+		for (; n > 0; n--)
+			sb.append(")");
+		return sb.toString();
+	}
+
+	private static long usedAfterGc() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	public static void main(String[] args) {
+		ChunkedList<Integer> xs = cons(0, of(1, 3, 3, 7));
+		System.out.println(xs + " head " + xs.head() + ", tail " + xs.tail() + ", length " + xs.length()
+				+ ", same nil: " + ((Object) ChunkedList.<String>nil() == ChunkedList.<Integer>nil()));
+		System.out.println(List.list(0, 1, 3, 3, 7) + " == " + xs.toList());
+
+		// the same boxed Integers in both, so only the spine is measured
+		final int n = 5_000_000;
+		Integer[] values = new Integer[n];
+		for (int i = 0; i < n; i++)
+			values[i] = i;
+
+		long m0 = usedAfterGc();
+		List<Integer> list = List.list(values);
+		long m1 = usedAfterGc();
+		ChunkedList<Integer> chunked = of(values);
+		long m2 = usedAfterGc();
+		System.out.printf("%,d elements: List %.1f bytes/element, ChunkedList %.1f bytes/element%n",
+				n, (double) (m1 - m0) / n, (double) (m2 - m1) / n);
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime(), a0 = Pipeline.allocatedBytes();
+			long s1 = 0;
+			for (List<Integer> it = list; !it.isEmpty(); it = it.tail)
+				s1 += it.head;
+			long t1 = System.nanoTime(), a1 = Pipeline.allocatedBytes();
+			long s2 = 0;
+			for (int x : chunked)
+				s2 += x;
+			long t2 = System.nanoTime(), a2 = Pipeline.allocatedBytes();
+			long s3 = 0;
+			for (ChunkedList<Integer> it = chunked; !it.isEmpty(); it = it.tail())
+				s3 += it.head();
+			long t3 = System.nanoTime(), a3 = Pipeline.allocatedBytes();
+			System.out.printf("sum: List head/tail %d ms (%,d bytes), ChunkedList iterator %d ms (%,d bytes), head/tail %d ms (%,d bytes) (%b)%n",
+					(t1 - t0) / 1_000_000, a1 - a0, (t2 - t1) / 1_000_000, a2 - a1, (t3 - t2) / 1_000_000, a3 - a2, s1 == s2 && s2 == s3);
+		}
+		System.out.println(list.head + " " + chunked.head());  // keep both alive until here
+	}
+}
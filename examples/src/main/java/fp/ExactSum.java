@@ -0,0 +1,115 @@
+package fp;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Exact sums without a BigInteger per element: the running sum is kept in a
+ * long, and only when Math.addExact overflows is it moved over to a
+ * BigInteger, after which the long starts again from zero.
+ */
+final class ExactSum {
+	private long partial;
+	private BigInteger overflow = BigInteger.ZERO;
+
+	void add(long x) {
+		try {
+			partial = Math.addExact(partial, x);
+		} catch (ArithmeticException e) {
+			overflow = overflow.add(BigInteger.valueOf(partial));
+			partial = x;
+		}
+	}
+
+	ExactSum combine(ExactSum other) {
+		add(other.partial);
+		if (other.overflow.signum() != 0)
+			overflow = overflow.add(other.overflow);
+		return this;
+	}
+
+	BigInteger get() {
+		return overflow.add(BigInteger.valueOf(partial));
+	}
+
+	static BigInteger sum(List<? extends Number> xs) {
+		ExactSum s = new ExactSum();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			s.add(xs.head.longValue());
+		return s.get();
+	}
+
+	static BigInteger sum(IntStream xs) {
+		return xs.collect(ExactSum::new, ExactSum::add, ExactSum::combine).get();
+	}
+
+	static BigInteger sum(LongStream xs) {
+		return xs.collect(ExactSum::new, ExactSum::add, ExactSum::combine).get();
+	}
+
+	// for streams of boxed integral numbers, e.g. Stream<Integer>
+	static Collector<Number, ExactSum, BigInteger> summing() {
+		return new Collector<Number, ExactSum, BigInteger>() {
+			@Override
+			public Supplier<ExactSum> supplier() {
+				return ExactSum::new;
+			}
+
+			@Override
+			public BiConsumer<ExactSum, Number> accumulator() {
+				return (s, x) -> s.add(x.longValue());
+			}
+
+			@Override
+			public BinaryOperator<ExactSum> combiner() {
+				return ExactSum::combine;
+			}
+
+			@Override
+			public Function<ExactSum, BigInteger> finisher() {
+				return ExactSum::get;
+			}
+
+			@Override
+			public Set<Characteristics> characteristics() {
+				return Collections.unmodifiableSet(EnumSet.of(Characteristics.UNORDERED));
+			}
+		};
+	}
+
+	public static void main(String[] args) {
+		List<Integer> small = List.list(1, 3, 3, 7);
+		System.out.println(sum(small) + " == " + App2.reduce(small, BigInteger.ZERO));
+		System.out.println(java.util.stream.Stream.of(1, 3, 3, 7).collect(summing()));
+
+		// overflows long several times, in parallel
+		BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(1000));
+		System.out.println(sum(LongStream.generate(() -> Long.MAX_VALUE).limit(1000).parallel()).equals(expected));
+
+		final int n = 10_000_000;
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(i & 1023);
+		List<Integer> xs = b.build();
+
+		// App2.reduce itself recurses once per element, so use its loop form
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			BigInteger folded = StackSafe.foldl(xs, BigInteger.ZERO, (bi, i) -> bi.add(BigInteger.valueOf(i)));
+			long t1 = System.nanoTime();
+			BigInteger exact = sum(xs);
+			long t2 = System.nanoTime();
+			System.out.printf("%,d integers: BigInteger fold %d ms, long with overflow check %d ms (%s)%n",
+					n, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, folded.equals(exact) ? exact : "MISMATCH");
+		}
+	}
+}
@@ -0,0 +1,401 @@
+package fp;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Persistent sequence as a 2-3 finger tree annotated with sizes (Hinze and
+ * Paterson): cons/snoc and head/last are amortized O(1), concat and split are
+ * O(log n), and get(i) is O(log n) by descending along the cached sizes.
+ *
+ * Internally, the elements of the middle tree are Nodes of the level above;
+ * an element counts 1, a Node as many elements as it holds.
+ */
+final class FingerTree<T> {
+	private static final class Node {
+		final int size;
+		final Object[] items;  // 2 or 3
+
+		Node(Object... items) {
+			this.items = items;
+			this.size = measure(items);
+		}
+	}
+
+	private static int measure(Object o) {
+		return o instanceof Node ? ((Node) o).size : 1;
+	}
+
+	private static int measure(Object[] items) {
+		int n = 0;
+		for (Object o : items)
+			n += measure(o);
+		return n;
+	}
+
+	private abstract static class Tree {
+		abstract int size();
+		abstract Tree cons(Object a);
+		abstract Tree snoc(Object a);
+		abstract Object head();
+		abstract Object last();
+		abstract Tree tail();
+		abstract Tree init();
+		// returns the item at this level containing index i[0], and sets i[0]
+		// to the index within that item
+		abstract Object lookup(int[] i);
+		// 0 <= i < size()
+		abstract Cut split(int i);
+	}
+
+	// a tree split around the item at some index, within one level
+	private static final class Cut {
+		final Tree left;
+		final Object item;
+		final Tree right;
+
+		Cut(Tree left, Object item, Tree right) {
+			this.left = left;
+			this.item = item;
+			this.right = right;
+		}
+	}
+
+	private static final Tree EMPTY = new Tree() {
+		int size() { return 0; }
+		Tree cons(Object a) { return new Single(a); }
+		Tree snoc(Object a) { return new Single(a); }
+		Object head() { throw new NoSuchElementException(); }
+		Object last() { throw new NoSuchElementException(); }
+		Tree tail() { throw new NoSuchElementException(); }
+		Tree init() { throw new NoSuchElementException(); }
+		Object lookup(int[] i) { throw new NoSuchElementException(); }
+		Cut split(int i) { throw new NoSuchElementException(); }
+	};
+
+	private static final class Single extends Tree {
+		final Object a;
+
+		Single(Object a) {
+			this.a = a;
+		}
+
+		int size() { return measure(a); }
+		Tree cons(Object b) { return new Deep(new Object[] {b}, EMPTY, new Object[] {a}); }
+		Tree snoc(Object b) { return new Deep(new Object[] {a}, EMPTY, new Object[] {b}); }
+		Object head() { return a; }
+		Object last() { return a; }
+		Tree tail() { return EMPTY; }
+		Tree init() { return EMPTY; }
+		Object lookup(int[] i) { return a; }
+		Cut split(int i) { return new Cut(EMPTY, a, EMPTY); }
+	}
+
+	private static final class Deep extends Tree {
+		final int size;
+		final Object[] prefix;  // 1 to 4 items
+		final Tree middle;      // of Nodes
+		final Object[] suffix;  // 1 to 4 items
+
+		Deep(Object[] prefix, Tree middle, Object[] suffix) {
+			this.prefix = prefix;
+			this.middle = middle;
+			this.suffix = suffix;
+			this.size = measure(prefix) + middle.size() + measure(suffix);
+		}
+
+		int size() {
+			return size;
+		}
+
+		Tree cons(Object a) {
+			if (prefix.length < 4)
+				return new Deep(prepend(a, prefix), middle, suffix);
+			// full digit: push three items down as a node
+			return new Deep(new Object[] {a, prefix[0]}, middle.cons(new Node(prefix[1], prefix[2], prefix[3])), suffix);
+		}
+
+		Tree snoc(Object a) {
+			if (suffix.length < 4)
+				return new Deep(prefix, middle, append(suffix, a));
+			return new Deep(prefix, middle.snoc(new Node(suffix[0], suffix[1], suffix[2])), new Object[] {suffix[3], a});
+		}
+
+		Object head() { return prefix[0]; }
+		Object last() { return suffix[suffix.length - 1]; }
+		Tree tail() { return deepL(Arrays.copyOfRange(prefix, 1, prefix.length), middle, suffix); }
+		Tree init() { return deepR(prefix, middle, Arrays.copyOfRange(suffix, 0, suffix.length - 1)); }
+
+		Object lookup(int[] i) {
+			int p = measure(prefix);
+			if (i[0] < p)
+				return find(prefix, i);
+			i[0] -= p;
+			if (i[0] < middle.size()) {
+				Node n = (Node) middle.lookup(i);
+				return find(n.items, i);
+			}
+			i[0] -= middle.size();
+			return find(suffix, i);
+		}
+
+		Cut split(int i) {
+			int p = measure(prefix);
+			if (i < p) {
+				int j = splitPoint(prefix, i);
+				return new Cut(toTree(Arrays.copyOfRange(prefix, 0, j)), prefix[j],
+						deepL(Arrays.copyOfRange(prefix, j + 1, prefix.length), middle, suffix));
+			}
+			i -= p;
+			if (i < middle.size()) {
+				Cut s = middle.split(i);
+				Object[] items = ((Node) s.item).items;
+				int j = splitPoint(items, i - s.left.size());
+				return new Cut(deepR(prefix, s.left, Arrays.copyOfRange(items, 0, j)), items[j],
+						deepL(Arrays.copyOfRange(items, j + 1, items.length), s.right, suffix));
+			}
+			i -= middle.size();
+			int j = splitPoint(suffix, i);
+			return new Cut(deepR(prefix, middle, Arrays.copyOfRange(suffix, 0, j)), suffix[j],
+					toTree(Arrays.copyOfRange(suffix, j + 1, suffix.length)));
+		}
+	}
+
+	private static Object[] prepend(Object a, Object[] items) {
+		Object[] r = new Object[items.length + 1];
+		r[0] = a;
+		System.arraycopy(items, 0, r, 1, items.length);
+		return r;
+	}
+
+	private static Object[] append(Object[] items, Object a) {
+		Object[] r = Arrays.copyOf(items, items.length + 1);
+		r[items.length] = a;
+		return r;
+	}
+
+	// item of items containing index i[0]; adjusts i[0] to be relative to it
+	private static Object find(Object[] items, int[] i) {
+		for (Object o : items) {
+			int m = measure(o);
+			if (i[0] < m)
+				return o;
+			i[0] -= m;
+		}
+		throw new NoSuchElementException();
+	}
+
+	// position in items of the item containing index i
+	private static int splitPoint(Object[] items, int i) {
+		for (int j = 0; j < items.length; j++) {
+			i -= measure(items[j]);
+			if (i < 0)
+				return j;
+		}
+		throw new NoSuchElementException();
+	}
+
+	private static Tree toTree(Object[] items) {
+		Tree t = EMPTY;
+		for (Object o : items)
+			t = t.snoc(o);
+		return t;
+	}
+
+	// like new Deep(), but the prefix may be empty
+	private static Tree deepL(Object[] prefix, Tree middle, Object[] suffix) {
+		if (prefix.length > 0)
+			return new Deep(prefix, middle, suffix);
+		if (middle.size() == 0)
+			return toTree(suffix);
+		return new Deep(((Node) middle.head()).items, middle.tail(), suffix);
+	}
+
+	// like new Deep(), but the suffix may be empty
+	private static Tree deepR(Object[] prefix, Tree middle, Object[] suffix) {
+		if (suffix.length > 0)
+			return new Deep(prefix, middle, suffix);
+		if (middle.size() == 0)
+			return toTree(prefix);
+		return new Deep(prefix, middle.init(), ((Node) middle.last()).items);
+	}
+
+	// concatenation with some loose items in between
+	private static Tree app3(Tree a, Object[] ts, Tree b) {
+		if (a == EMPTY) {
+			for (int i = ts.length - 1; i >= 0; i--)
+				b = b.cons(ts[i]);
+			return b;
+		}
+		if (b == EMPTY) {
+			for (Object t : ts)
+				a = a.snoc(t);
+			return a;
+		}
+		if (a instanceof Single)
+			return app3(EMPTY, ts, b).cons(((Single) a).a);
+		if (b instanceof Single)
+			return app3(a, ts, EMPTY).snoc(((Single) b).a);
+
+		Deep x = (Deep) a, y = (Deep) b;
+		Object[] mid = new Object[x.suffix.length + ts.length + y.prefix.length];
+		System.arraycopy(x.suffix, 0, mid, 0, x.suffix.length);
+		System.arraycopy(ts, 0, mid, x.suffix.length, ts.length);
+		System.arraycopy(y.prefix, 0, mid, x.suffix.length + ts.length, y.prefix.length);
+		return new Deep(x.prefix, app3(x.middle, nodes(mid), y.middle), y.suffix);
+	}
+
+	// groups 2 or more items into nodes of 2 and 3
+	private static Object[] nodes(Object[] items) {
+		int n = items.length;
+		Object[] r = new Object[(n + 2) / 3];
+		int i = 0, k = 0;
+		while (n - i > 4) {
+			r[k++] = new Node(items[i], items[i + 1], items[i + 2]);
+			i += 3;
+		}
+		if (n - i == 4) {
+			r[k++] = new Node(items[i], items[i + 1]);
+			r[k++] = new Node(items[i + 2], items[i + 3]);
+		} else if (n - i == 3) {
+			r[k++] = new Node(items[i], items[i + 1], items[i + 2]);
+		} else {
+			r[k++] = new Node(items[i], items[i + 1]);
+		}
+		return Arrays.copyOf(r, k);
+	}
+
+	private static final FingerTree<?> EMPTY_SEQ = new FingerTree<>(EMPTY);
+
+	private final Tree tree;
+
+	private FingerTree(Tree tree) {
+		this.tree = tree;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> FingerTree<T> empty() {
+		return (FingerTree<T>) EMPTY_SEQ;
+	}
+
+	static <T> FingerTree<T> fromList(List<T> xs) {
+		Tree t = EMPTY;
+		for (; !xs.isEmpty(); xs = xs.tail)
+			t = t.snoc(xs.head);
+		return new FingerTree<>(t);
+	}
+
+	int size() {
+		return tree.size();
+	}
+
+	boolean isEmpty() {
+		return tree == EMPTY;
+	}
+
+	FingerTree<T> cons(T a) {
+		return new FingerTree<>(tree.cons(a));
+	}
+
+	FingerTree<T> snoc(T a) {
+		return new FingerTree<>(tree.snoc(a));
+	}
+
+	@SuppressWarnings("unchecked")
+	T head() {
+		return (T) tree.head();
+	}
+
+	@SuppressWarnings("unchecked")
+	T last() {
+		return (T) tree.last();
+	}
+
+	FingerTree<T> tail() {
+		return new FingerTree<>(tree.tail());
+	}
+
+	FingerTree<T> init() {
+		return new FingerTree<>(tree.init());
+	}
+
+	FingerTree<T> concat(FingerTree<T> other) {
+		return new FingerTree<>(app3(tree, new Object[0], other.tree));
+	}
+
+	@SuppressWarnings("unchecked")
+	T get(int i) {
+		if (i < 0 || i >= size())
+			throw new NoSuchElementException("index " + i + " of " + size());
+		int[] j = {i};
+		Object o = tree.lookup(j);
+		while (o instanceof Node)
+			o = find(((Node) o).items, j);
+		return (T) o;
+	}
+
+	static final class Split<T> {
+		final FingerTree<T> left, right;
+
+		Split(FingerTree<T> left, FingerTree<T> right) {
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	// the first n elements, and the rest
+	Split<T> splitAt(int n) {
+		if (n <= 0)
+			return new Split<>(empty(), this);
+		if (n >= size())
+			return new Split<>(this, empty());
+		Cut c = tree.split(n);
+		return new Split<>(new FingerTree<>(c.left), new FingerTree<>(c.right.cons(c.item)));
+	}
+
+	@SuppressWarnings("unchecked")
+	<R> R foldl(R z, BiFunction<R, ? super T, R> op) {
+		for (Tree t = tree; t != EMPTY; t = t.tail())
+			z = op.apply(z, (T) t.head());
+		return z;
+	}
+
+	@SuppressWarnings("unchecked")
+	List<T> toList() {
+		List.Builder<T> b = new List.Builder<>();
+		for (Tree t = tree; t != EMPTY; t = t.tail())
+			b.add((T) t.head());
+		return b.build();
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+	public static void main(String[] args) {
+		FingerTree<Integer> xs = FingerTree.<Integer>empty().snoc(3).snoc(7).cons(3).cons(1);
+		System.out.println(xs + ", size " + xs.size() + ", get(2) = " + xs.get(2));
+		Split<Integer> parts = xs.concat(xs).splitAt(5);
+		System.out.println(parts.left + " | " + parts.right);
+
+		// reverse by repeated append: O(n^2) with fplive.Example.append, O(n log n) here
+		final int n = 1_000_000;
+		long t0 = System.nanoTime();
+		FingerTree<Integer> rev = empty();
+		for (int i = 0; i < n; i++)
+			rev = FingerTree.<Integer>empty().snoc(i).concat(rev);
+		long t1 = System.nanoTime();
+		FingerTree<Integer> dq = empty();
+		for (int i = 0; i < n; i++)
+			dq = (i & 1) == 0 ? dq.cons(i) : dq.snoc(i);
+		long t2 = System.nanoTime();
+		long sum = 0;
+		for (int i = 0; i < n; i += 1000)
+			sum += rev.get(i);
+		long t3 = System.nanoTime();
+		System.out.printf("%,d concats: %d ms, %,d cons/snoc: %d ms, 1000 gets: %.2f ms (head %d, last %d, %d)%n",
+				n, (t1 - t0) / 1_000_000, n, (t2 - t1) / 1_000_000, (t3 - t2) / 1e6, rev.head(), rev.last(), sum);
+	}
+}
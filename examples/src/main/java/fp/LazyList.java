@@ -0,0 +1,181 @@
+package fp;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lazy counterpart to List: each cell is computed on first access and then
+ * remembered, so map/filter/... only do the work for the elements actually
+ * consumed, and infinite lists are fine as long as only a prefix is used.
+ */
+final class LazyList<T> {
+	private static final class Cell<T> {
+		final T head;
+		final LazyList<T> tail;
+
+		Cell(T head, LazyList<T> tail) {
+			this.head = head;
+			this.tail = tail;
+		}
+	}
+
+	private Supplier<Cell<T>> thunk;  // null once evaluated
+	private Cell<T> cell;             // null after evaluation means empty
+
+	private LazyList(Supplier<Cell<T>> thunk) {
+		this.thunk = thunk;
+	}
+
+	private synchronized Cell<T> force() {
+		if (thunk != null) {
+			cell = thunk.get();
+			thunk = null;  // drop the closure, so it can be collected
+		}
+		return cell;
+	}
+
+	static <T> LazyList<T> empty() {
+		return new LazyList<>(() -> null);
+	}
+
+	static <T> LazyList<T> cons(T head, Supplier<LazyList<T>> tail) {
+		return new LazyList<>(() -> new Cell<>(head, new LazyList<>(() -> tail.get().force())));
+	}
+
+	// seed, f(seed), f(f(seed)), ...
+	static <T> LazyList<T> iterate(T seed, UnaryOperator<T> f) {
+		return new LazyList<>(() -> new Cell<>(seed, new LazyList<>(() -> iterate(f.apply(seed), f).force())));
+	}
+
+	static <T> LazyList<T> generate(Supplier<T> s) {
+		return new LazyList<>(() -> new Cell<>(s.get(), generate(s)));
+	}
+
+	static <T> LazyList<T> from(List<T> xs) {
+		return new LazyList<>(() -> xs.isEmpty() ? null : new Cell<>(xs.head, from(xs.tail)));
+	}
+
+	boolean isEmpty() {
+		return force() == null;
+	}
+
+	T head() {
+		Cell<T> c = force();
+		if (c == null)
+			throw new IllegalStateException("head of empty list");
+		return c.head;
+	}
+
+	LazyList<T> tail() {
+		Cell<T> c = force();
+		if (c == null)
+			throw new IllegalStateException("tail of empty list");
+		return c.tail;
+	}
+
+	<R> LazyList<R> map(Function<T, R> f) {
+		return new LazyList<>(() -> {
+			Cell<T> c = force();
+			return c == null ? null : new Cell<>(f.apply(c.head), c.tail.map(f));
+		});
+	}
+
+	LazyList<T> filter(Predicate<T> p) {
+		return new LazyList<>(() -> {
+			// skip non-matching cells in a loop rather than by recursion
+			Cell<T> c = force();
+			while (c != null && !p.test(c.head))
+				c = c.tail.force();
+			return c == null ? null : new Cell<>(c.head, c.tail.filter(p));
+		});
+	}
+
+	LazyList<T> take(int n) {
+		return new LazyList<>(() -> {
+			if (n <= 0)
+				return null;
+			Cell<T> c = force();
+			return c == null ? null : new Cell<>(c.head, c.tail.take(n - 1));
+		});
+	}
+
+	LazyList<T> drop(int n) {
+		return new LazyList<>(() -> {
+			LazyList<T> xs = this;
+			for (int i = 0; i < n && !xs.isEmpty(); i++)
+				xs = xs.tail();
+			return xs.force();
+		});
+	}
+
+	<U, R> LazyList<R> zip(LazyList<U> ys, BiFunction<T, U, R> f) {
+		return new LazyList<>(() -> {
+			Cell<T> a = force();
+			Cell<U> b = ys.force();
+			return a == null || b == null ? null : new Cell<>(f.apply(a.head, b.head), a.tail.zip(b.tail, f));
+		});
+	}
+
+	// forces everything, so only call this on finite lists
+	List<T> toList() {
+		List.Builder<T> b = new List.Builder<>();
+		for (Cell<T> c = force(); c != null; c = c.tail.force())
+			b.add(c.head);
+		return b.build();
+	}
+
+	// shows only what has been evaluated so far
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("LazyList(");
+		LazyList<T> xs = this;
+		String sep = "";
+		while (true) {
+			Cell<T> c;
+			synchronized (xs) {
+				if (xs.thunk != null) {
+					sb.append(sep).append("?");
+					break;
+				}
+				c = xs.cell;
+			}
+			if (c == null)
+				break;
+			sb.append(sep).append(c.head);
+			sep = ", ";
+			xs = c.tail;
+		}
+		return sb.append(")").toString();
+	}
+
+	public static void main(String[] args) {
+		int[] calls = new int[1];
+		LazyList<Integer> naturals = iterate(0, i -> i + 1);
+		LazyList<Integer> squares = naturals.map(i -> {
+			calls[0]++;
+			return i * i;
+		});
+
+		System.out.println(squares.filter(i -> i % 2 == 0).take(5).toList());
+		System.out.println("squares computed: " + calls[0]);
+		System.out.println(squares);
+
+		LazyList<Long> fibs = fibs(0, 1);
+		System.out.println(fibs.drop(10).take(5).toList());
+		System.out.println(naturals.zip(from(List.list("a", "b", "c")), (i, s) -> s + i).toList());
+
+		// only 10 of the million elements are mapped
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < 1_000_000; i++)
+			b.add(i);
+		calls[0] = 0;
+		System.out.println(from(b.build()).map(i -> ++calls[0]).take(10).toList() + ", mapped: " + calls[0]);
+	}
+
+	static LazyList<Long> fibs(long a, long b) {
+		return cons(a, () -> fibs(b, a + b));
+	}
+}
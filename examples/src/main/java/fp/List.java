@@ -1,5 +1,13 @@
 package fp;
 
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 class List<T> {
 	final T head;
 	final List<T> tail;
@@ -13,8 +21,12 @@ class List<T> {
 		return head == null;
 	}
 
+	// one shared empty list: cells are immutable, so there is no need for more
+	private static final List<?> EMPTY = new List<>(null, null);
+
+	@SuppressWarnings("unchecked")
 	static <T> List<T> empty() {
-		return new List<T>(null, null);
+		return (List<T>) EMPTY;
 	}
 
 	static <T> List<T> list(T elem, List<T> xs) {
@@ -31,9 +43,121 @@ class List<T> {
 		return xs;
 	}
 
+	Spliterator<T> spliterator() {
+		return new ListSpliterator<>(this);
+	}
+
+	// lazy: cells are visited only as the stream pulls them
+	Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	// collects into a List in encounter order, also from parallel streams
+	static <T> Collector<T, ?, List<T>> collector() {
+		return Collector.of(Builder<T>::new, Builder::add, Builder::addAll, Builder::build);
+	}
+
 	@Override
 	public String toString() {
 		if (isEmpty()) return "nil";
 		else return "(" + head + " " + tail + ")";
 	}
+
+	/**
+	 * Collects elements front to back in an array and conses them up from
+	 * the end in build(), so List cells stay immutable (and their fields
+	 * final) without an intermediate reversed list.
+	 */
+	static final class Builder<T> {
+		private Object[] elems = new Object[16];
+		private int n;
+
+		void add(T elem) {
+			if (n == elems.length)
+				elems = Arrays.copyOf(elems, 2 * n);
+			elems[n++] = elem;
+		}
+
+		// appends the elements of other, which must not be used afterwards
+		Builder<T> addAll(Builder<T> other) {
+			if (n + other.n > elems.length)
+				elems = Arrays.copyOf(elems, Math.max(2 * elems.length, n + other.n));
+			System.arraycopy(other.elems, 0, elems, n, other.n);
+			n += other.n;
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		List<T> build(List<T> rest) {
+			List<T> xs = rest;
+			for (int i = n - 1; i >= 0; i--)
+				xs = new List<>((T) elems[i], xs);
+			return xs;
+		}
+
+		List<T> build() {
+			return build(empty());
+		}
+	}
+
+	/**
+	 * The length is unknown without a full walk, so splitting works like
+	 * Spliterators.AbstractSpliterator: trySplit copies a batch off the
+	 * front into an array, the batches growing arithmetically, and the rest
+	 * of the list stays untouched until it is needed.
+	 */
+	private static final class ListSpliterator<T> implements Spliterator<T> {
+		static final int BATCH_UNIT = 1 << 10, MAX_BATCH = 1 << 25;
+		static final int CHARACTERISTICS = ORDERED | IMMUTABLE | NONNULL;
+
+		private List<T> xs;
+		private int batch;
+
+		ListSpliterator(List<T> xs) {
+			this.xs = xs;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (xs.isEmpty())
+				return false;
+			action.accept(xs.head);
+			xs = xs.tail;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			for (List<T> it = xs; !it.isEmpty(); it = it.tail)
+				action.accept(it.head);
+			xs = empty();
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			if (xs.isEmpty() || xs.tail.isEmpty())
+				return null;
+			int n = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+			Object[] a = new Object[n];
+			int k = 0;
+			for (; k < n && !xs.isEmpty(); xs = xs.tail)
+				a[k++] = xs.head;
+			batch = k;
+			return Spliterators.spliterator(a, 0, k, CHARACTERISTICS);
+		}
+
+		@Override
+		public long estimateSize() {
+			return xs.isEmpty() ? 0 : Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return CHARACTERISTICS;
+		}
+	}
 }
@@ -0,0 +1,58 @@
+package fp;
+
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * List.stream() and List.collector() against the detour through an
+ * ArrayList, in both directions.
+ */
+class ListStreams {
+	static <T> java.util.List<T> copy(List<T> xs) {
+		java.util.List<T> a = new ArrayList<>();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			a.add(xs.head);
+		return a;
+	}
+
+	static <T> List<T> copy(java.util.List<T> a) {
+		List<T> xs = List.empty();
+		for (int i = a.size() - 1; i >= 0; i--)
+			xs = List.list(a.get(i), xs);
+		return xs;
+	}
+
+	public static void main(String[] args) {
+		List<Integer> small = List.list(1, 3, 3, 7);
+		System.out.println(small.stream().map(i -> i * 2).collect(List.collector()));
+
+		// lazy: an endless list of ones would do, but a long one shows the point
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < 5_000_000; i++)
+			b.add(i);
+		List<Integer> xs = b.build();
+		System.out.println("first even > 10: " + xs.stream().filter(i -> i > 10 && i % 2 == 0).findFirst().get());
+
+		// order is kept through the parallel combiner
+		List<Integer> par = IntStream.range(0, 100_000).boxed().parallel().collect(List.collector());
+		List<Integer> seq = IntStream.range(0, 100_000).boxed().collect(List.collector());
+		System.out.println("parallel collect in order: " + copy(par).equals(copy(seq))
+				+ ", parallel stream sum: " + xs.parallelStream().mapToLong(i -> i).sum());
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			long s1 = copy(xs).stream().mapToLong(i -> i).sum();
+			long t1 = System.nanoTime();
+			long s2 = xs.stream().mapToLong(i -> i).sum();
+			long t2 = System.nanoTime();
+			List<Integer> c1 = copy(xs.stream().map(i -> i + 1).collect(Collectors.toList()));
+			long t3 = System.nanoTime();
+			List<Integer> c2 = xs.stream().map(i -> i + 1).collect(List.collector());
+			long t4 = System.nanoTime();
+			System.out.printf("%,d elements, to stream: ArrayList copy %d ms, spliterator %d ms (%b); from stream: ArrayList copy %d ms, collector %d ms (%b)%n",
+					StackSafe.length(xs), (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, s1 == s2,
+					(t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000, c1.head.equals(c2.head) && StackSafe.length(c1) == StackSafe.length(c2));
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package fp;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Memoized function with a bounded cache that evicts the least recently used
+ * entry. The function receives a memoized version of itself, so that its
+ * recursive calls are memoized too:
+ *
+ *   Memo<Integer, Long> fib = Memo.of((self, n) -> n < 2 ? n : self.apply(n-1) + self.apply(n-2), 1000);
+ *
+ * Every recursive call first looks in its top-level call's own HashMap,
+ * then in the shared cache, and only computes the value on a miss in both;
+ * a computed value goes into both. So later calls reuse the subresults of
+ * earlier ones, while a small cache cannot evict a subresult the current
+ * call still needs. The capacity bounds the cache between calls; during a
+ * call, the values it has used are held as well until it returns.
+ * The recursion runs on the JVM stack, one frame per nested call; use
+ * TailCall for deeper ones.
+ *
+ * With concurrent = true, the cache may be shared between threads; two
+ * threads may then compute the same (pure!) value at once. Results must not
+ * be null.
+ */
+class Memo<A, R> implements Function<A, R> {
+	private final BiFunction<Function<A, R>, A, R> f;
+	private final LinkedHashMap<A, R> cache;
+	private final boolean concurrent;
+	private long hits, misses, evictions;
+
+	private Memo(BiFunction<Function<A, R>, A, R> f, int capacity, boolean concurrent) {
+		this.f = f;
+		this.concurrent = concurrent;
+		// access order: get() moves an entry to the end, the eldest is the LRU
+		this.cache = new LinkedHashMap<A, R>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(java.util.Map.Entry<A, R> eldest) {
+				if (size() <= capacity)
+					return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	static <A, R> Memo<A, R> of(BiFunction<Function<A, R>, A, R> f, int capacity) {
+		return new Memo<>(f, capacity, false);
+	}
+
+	static <A, R> Memo<A, R> concurrent(BiFunction<Function<A, R>, A, R> f, int capacity) {
+		return new Memo<>(f, capacity, true);
+	}
+
+	// one top-level evaluation; results keeps what it has used from being evicted
+	private final class Call implements Function<A, R> {
+		final HashMap<A, R> results = new HashMap<>();
+		long hits;
+
+		@Override
+		public R apply(A a) {
+			R r = results.get(a);
+			if (r != null) {
+				hits++;
+				return r;
+			}
+			r = lookup(a);
+			if (r == null) {
+				r = f.apply(this, a);
+				store(a, r);
+			}
+			results.put(a, r);
+			return r;
+		}
+	}
+
+	// counts a miss if a is not cached, so misses are the evaluations of f
+	private R lookup(A a) {
+		if (!concurrent)
+			return lookupUnlocked(a);
+		synchronized (cache) {
+			return lookupUnlocked(a);
+		}
+	}
+
+	private R lookupUnlocked(A a) {
+		R r = cache.get(a);
+		if (r != null)
+			hits++;
+		else
+			misses++;
+		return r;
+	}
+
+	private void store(A a, R r) {
+		if (!concurrent) {
+			cache.put(a, r);
+			return;
+		}
+		synchronized (cache) {
+			cache.put(a, r);
+		}
+	}
+
+	@Override
+	public R apply(A a) {
+		Call call = new Call();
+		R r = call.apply(a);
+		if (concurrent) {
+			synchronized (cache) {
+				hits += call.hits;
+			}
+		} else {
+			hits += call.hits;
+		}
+		return r;
+	}
+
+	// the counters are only consistent when read under the same lock
+	private <X> X stat(java.util.function.Supplier<X> s) {
+		if (!concurrent)
+			return s.get();
+		synchronized (cache) {
+			return s.get();
+		}
+	}
+
+	long hits() {
+		return stat(() -> hits);
+	}
+
+	long misses() {
+		return stat(() -> misses);
+	}
+
+	long evictions() {
+		return stat(() -> evictions);
+	}
+
+	int size() {
+		return stat(cache::size);
+	}
+
+	@Override
+	public String toString() {
+		return stat(() -> String.format("%d hits, %d misses, %d evictions, %d cached", hits, misses, evictions, cache.size()));
+	}
+
+	public static void main(String[] args) {
+		long t0, t1, f90 = 0;
+		for (int round = 0; round < 2000; round++) {
+			// a fresh cache each round, so every call is cold; the first
+			// round also pays for class loading and the interpreter
+			Memo<Integer, Long> fib = Memo.of((self, n) -> n < 2 ? (long) n : self.apply(n - 1) + self.apply(n - 2), 128);
+			t0 = System.nanoTime();
+			f90 = fib.apply(90);
+			t1 = System.nanoTime();
+			if (round == 0 || round == 10 || round == 1999)
+				System.out.printf("round %d: fib(90) = %d in %.1f us (%s)%n", round, f90, (t1 - t0) / 1e3, fib);
+		}
+		System.out.println("fib(90) == fib2: " + (f90 == App1.fib2(0, 1, 90)));
+
+		// a later call reuses the subresults of earlier ones
+		Memo<Integer, Long> fib = Memo.of((self, n) -> n < 2 ? (long) n : self.apply(n - 1) + self.apply(n - 2), 1000);
+		fib.apply(90);
+		long before = fib.misses();
+		System.out.println("fib(91) = " + fib.apply(91) + " after fib(90): " + (fib.misses() - before) + " miss (" + fib + ")");
+
+		t0 = System.nanoTime();
+		long f40 = App1.fib1(40);
+		t1 = System.nanoTime();
+		System.out.printf("App1.fib1(40) = %d in %d ms%n", f40, (t1 - t0) / 1_000_000);
+
+		// too small a cache: the recursion still computes each value once
+		Memo<Integer, Long> tiny = Memo.concurrent((self, n) -> n < 2 ? (long) n : self.apply(n - 1) + self.apply(n - 2), 2);
+		System.out.println("fib(30) = " + tiny.apply(30) + " with capacity 2 (" + tiny + ")");
+	}
+}
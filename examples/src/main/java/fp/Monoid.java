@@ -0,0 +1,37 @@
+package fp;
+
+import java.math.BigInteger;
+import java.util.function.BinaryOperator;
+
+/**
+ * An associative operation with an identity element, i.e.
+ * combine(a, combine(b, c)) == combine(combine(a, b), c) and
+ * combine(empty(), a) == a == combine(a, empty()).
+ * This is what it takes to reduce in any grouping, e.g. in parallel; the
+ * operation need not be commutative (String::concat isn't).
+ */
+interface Monoid<T> {
+	T empty();
+
+	T combine(T a, T b);
+
+	static <T> Monoid<T> of(T empty, BinaryOperator<T> op) {
+		return new Monoid<T>() {
+			@Override
+			public T empty() {
+				return empty;
+			}
+
+			@Override
+			public T combine(T a, T b) {
+				return op.apply(a, b);
+			}
+		};
+	}
+
+	Monoid<Integer> INT_SUM = of(0, Integer::sum);
+	Monoid<Long> LONG_SUM = of(0L, Long::sum);
+	Monoid<BigInteger> BIG_SUM = of(BigInteger.ZERO, BigInteger::add);
+	Monoid<Integer> INT_MAX = of(Integer.MIN_VALUE, Math::max);
+	Monoid<String> CONCAT = of("", String::concat);
+}
@@ -0,0 +1,118 @@
+package fp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reduce with a Monoid on a ForkJoinPool: sequences that split cheaply
+ * (PersistentVector.slice is O(1), FingerTree.splitAt O(log n)) are halved
+ * down to a sequential cutoff, the halves reduced in parallel, and the
+ * results combined pairwise, left before right, so the shape is a tree
+ * instead of foldl's chain. Associativity makes both give the same result.
+ */
+class ParallelReduce {
+	// below this, forking costs more than it saves
+	static final int CUTOFF = 1 << 13;
+
+	private static class VectorTask<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = 1L;
+
+		final PersistentVector<T> xs;
+		final Monoid<T> m;
+
+		VectorTask(PersistentVector<T> xs, Monoid<T> m) {
+			this.xs = xs;
+			this.m = m;
+		}
+
+		@Override
+		protected T compute() {
+			int n = xs.size();
+			if (n <= CUTOFF)
+				return xs.foldl(m.empty(), m::combine);
+
+			VectorTask<T> left = new VectorTask<>(xs.slice(0, n >>> 1), m);
+			left.fork();
+			T right = new VectorTask<>(xs.slice(n >>> 1, n), m).compute();
+			return m.combine(left.join(), right);
+		}
+	}
+
+	private static class TreeTask<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = 1L;
+
+		final FingerTree<T> xs;
+		final Monoid<T> m;
+
+		TreeTask(FingerTree<T> xs, Monoid<T> m) {
+			this.xs = xs;
+			this.m = m;
+		}
+
+		@Override
+		protected T compute() {
+			int n = xs.size();
+			if (n <= CUTOFF)
+				return xs.foldl(m.empty(), m::combine);
+
+			FingerTree.Split<T> halves = xs.splitAt(n >>> 1);
+			TreeTask<T> left = new TreeTask<>(halves.left, m);
+			left.fork();
+			T right = new TreeTask<>(halves.right, m).compute();
+			return m.combine(left.join(), right);
+		}
+	}
+
+	static <T> T parallelReduce(PersistentVector<T> xs, Monoid<T> m) {
+		return parallelReduce(xs, m, ForkJoinPool.commonPool());
+	}
+
+	static <T> T parallelReduce(PersistentVector<T> xs, Monoid<T> m, ForkJoinPool pool) {
+		return pool.invoke(new VectorTask<>(xs, m));
+	}
+
+	static <T> T parallelReduce(FingerTree<T> xs, Monoid<T> m) {
+		return parallelReduce(xs, m, ForkJoinPool.commonPool());
+	}
+
+	static <T> T parallelReduce(FingerTree<T> xs, Monoid<T> m, ForkJoinPool pool) {
+		return pool.invoke(new TreeTask<>(xs, m));
+	}
+
+	public static void main(String[] args) {
+		List<Integer> small = List.list(1, 3, 3, 7);
+		System.out.println(parallelReduce(PersistentVector.fromList(small), Monoid.INT_SUM) + " == " + App2.reduce(small, 0, Integer::sum));
+
+		// not commutative: order must survive the splitting
+		List.Builder<String> sb = new List.Builder<>();
+		for (int i = 0; i < 50_000; i++)
+			sb.add(Character.toString((char) ('a' + i % 26)));
+		List<String> strings = sb.build();
+		String expected = StackSafe.foldl(strings, "", String::concat);
+		System.out.println("concat, vector: " + expected.equals(parallelReduce(PersistentVector.fromList(strings), Monoid.CONCAT)));
+		System.out.println("concat, finger tree: " + expected.equals(parallelReduce(FingerTree.fromList(strings), Monoid.CONCAT)));
+
+		final int n = 5_000_000;
+		java.util.Random rnd = new java.util.Random(42);
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(rnd.nextInt());
+		List<Integer> xs = b.build();
+		PersistentVector<Integer> v = PersistentVector.fromList(xs);
+		FingerTree<Integer> ft = FingerTree.fromList(xs);
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			int folded = StackSafe.foldl(xs, 0, Integer::sum);
+			long t1 = System.nanoTime();
+			int pv = parallelReduce(v, Monoid.INT_SUM);
+			long t2 = System.nanoTime();
+			int pf = parallelReduce(ft, Monoid.INT_SUM);
+			long t3 = System.nanoTime();
+			int max = parallelReduce(v, Monoid.INT_MAX);
+			System.out.printf("%,d ints on %d threads: foldl %d ms, vector %d ms, finger tree %d ms; sums equal: %b, max equal: %b%n",
+					n, ForkJoinPool.commonPool().getParallelism(), (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000,
+					folded == pv && pv == pf, max == StackSafe.foldl(xs, Integer.MIN_VALUE, Math::max));
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package fp;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Merge sort for List that scales: the list is measured and copied to an
+ * array once, split into runs of CUTOFF elements that are sorted in
+ * parallel on a ForkJoinPool, and then merged bottom-up, one pass per
+ * doubling of the run width; the merges within a pass run in parallel.
+ * The result is consed back up. Stable, i.e. equal elements keep their order.
+ */
+class ParallelSort {
+	// below this, forking costs more than it saves
+	static final int CUTOFF = 1 << 13;
+
+	// one pass: sorts runs [lo, hi) if width == 0, else merges pairs [lo, hi) of runs of width
+	private static class Pass<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final T[] a, tmp;
+		final int width, lo, hi;
+		final Comparator<? super T> cmp;
+
+		Pass(T[] a, T[] tmp, int width, int lo, int hi, Comparator<? super T> cmp) {
+			this.a = a;
+			this.tmp = tmp;
+			this.width = width;
+			this.lo = lo;
+			this.hi = hi;
+			this.cmp = cmp;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Pass<>(a, tmp, width, lo, mid, cmp), new Pass<>(a, tmp, width, mid, hi, cmp));
+				return;
+			}
+
+			int n = a.length;
+			if (width == 0) {
+				// TimSort, which is stable as well
+				Arrays.sort(a, lo * CUTOFF, Math.min(n, (lo + 1) * CUTOFF), cmp);
+			} else {
+				int from = lo * 2 * width, mid = from + width;
+				if (mid < n)
+					merge(a, tmp, from, mid, Math.min(n, mid + width), cmp);
+			}
+		}
+	}
+
+	// merges the sorted runs a[lo, mid) and a[mid, hi), left first on ties
+	private static <T> void merge(T[] a, T[] tmp, int lo, int mid, int hi, Comparator<? super T> cmp) {
+		if (cmp.compare(a[mid - 1], a[mid]) <= 0)
+			return;  // already in order
+
+		System.arraycopy(a, lo, tmp, lo, mid - lo);
+		int i = lo, j = mid, k = lo;
+		while (i < mid && j < hi)
+			a[k++] = cmp.compare(tmp[i], a[j]) <= 0 ? tmp[i++] : a[j++];
+		while (i < mid)
+			a[k++] = tmp[i++];
+	}
+
+	static <T extends Comparable<? super T>> List<T> msort(List<T> xs) {
+		return msort(xs, Comparator.naturalOrder(), ForkJoinPool.commonPool());
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> List<T> msort(List<T> xs, Comparator<? super T> cmp, ForkJoinPool pool) {
+		int n = StackSafe.length(xs);
+		T[] a = (T[]) new Object[n];
+		for (int i = 0; !xs.isEmpty(); xs = xs.tail)
+			a[i++] = xs.head;
+
+		if (n > 1) {
+			T[] tmp = (T[]) new Object[n];
+			pool.invoke(new Pass<>(a, tmp, 0, 0, (n + CUTOFF - 1) / CUTOFF, cmp));
+			for (long width = CUTOFF; width < n; width *= 2)
+				pool.invoke(new Pass<>(a, tmp, (int) width, 0, (int) ((n + 2 * width - 1) / (2 * width)), cmp));
+		}
+
+		List<T> ys = List.empty();
+		for (int i = n - 1; i >= 0; i--)
+			ys = List.list(a[i], ys);
+		return ys;
+	}
+
+	public static void main(String[] args) {
+		System.out.println(msort(List.list(7, 3, 1, 3)) + " == " + App1.msort(List.list(7, 3, 1, 3)));
+
+		// stability: sort by length only, equal lengths keep their order
+		System.out.println(msort(List.list("ccc", "a", "bb", "b", "aa", "c"), Comparator.comparing(String::length), ForkJoinPool.commonPool()));
+
+		final int n = 10_000_000;
+		java.util.Random rnd = new java.util.Random(42);
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(rnd.nextInt());
+		List<Integer> xs = b.build();
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			List<Integer> sorted = msort(xs);
+			long t1 = System.nanoTime();
+
+			boolean ok = true;
+			for (List<Integer> it = sorted; !it.tail.isEmpty(); it = it.tail)
+				ok &= it.head <= it.tail.head;
+			System.out.printf("sorted %,d elements in %d ms on %d threads, ordered: %b, length: %d%n",
+					n, (t1 - t0) / 1_000_000, ForkJoinPool.commonPool().getParallelism(), ok, StackSafe.length(sorted));
+		}
+	}
+}
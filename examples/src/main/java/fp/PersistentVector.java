@@ -0,0 +1,261 @@
+package fp;
+
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Immutable vector with random access, built as a bit-partitioned trie of
+ * 32-way nodes (as in Clojure): get and update touch O(log32 n) nodes, updates
+ * copy only that path, and the last (up to) 32 elements live in a separate
+ * tail array so that append mostly copies just the tail.
+ * slice() is O(1): it shares the whole trie and only narrows the index range.
+ */
+final class PersistentVector<T> {
+	private static final class Node {
+		final Object[] array;
+
+		Node(Object[] array) {
+			this.array = array;
+		}
+	}
+
+	// the actual trie; a PersistentVector is a window [start, end) on it
+	private static final class Trie {
+		static final Node EMPTY_NODE = new Node(new Object[32]);
+		static final Trie EMPTY = new Trie(0, 5, EMPTY_NODE, new Object[0]);
+
+		final int cnt;
+		final int shift;
+		final Node root;
+		final Object[] tail;
+
+		Trie(int cnt, int shift, Node root, Object[] tail) {
+			this.cnt = cnt;
+			this.shift = shift;
+			this.root = root;
+			this.tail = tail;
+		}
+
+		// index of the first element in the tail
+		int tailoff() {
+			return cnt < 32 ? 0 : ((cnt - 1) >>> 5) << 5;
+		}
+
+		// leaf array holding element i
+		Object[] arrayFor(int i) {
+			if (i >= tailoff())
+				return tail;
+			Node node = root;
+			for (int level = shift; level > 0; level -= 5)
+				node = (Node) node.array[(i >>> level) & 31];
+			return node.array;
+		}
+
+		Trie assoc(int i, Object val) {
+			if (i >= tailoff()) {
+				Object[] t = tail.clone();
+				t[i & 31] = val;
+				return new Trie(cnt, shift, root, t);
+			}
+			return new Trie(cnt, shift, doAssoc(shift, root, i, val), tail);
+		}
+
+		private static Node doAssoc(int level, Node node, int i, Object val) {
+			Object[] a = node.array.clone();
+			if (level == 0)
+				a[i & 31] = val;
+			else {
+				int sub = (i >>> level) & 31;
+				a[sub] = doAssoc(level - 5, (Node) node.array[sub], i, val);
+			}
+			return new Node(a);
+		}
+
+		Trie push(Object val) {
+			// room in the tail: copy only the tail
+			if (cnt - tailoff() < 32) {
+				Object[] t = new Object[tail.length + 1];
+				System.arraycopy(tail, 0, t, 0, tail.length);
+				t[tail.length] = val;
+				return new Trie(cnt + 1, shift, root, t);
+			}
+
+			// tail is full: move it into the trie, start a new one
+			Node tailNode = new Node(tail);
+			Node newRoot;
+			int newShift = shift;
+			if ((cnt >>> 5) > (1 << shift)) {
+				// root is full: grow the trie by one level
+				Object[] a = new Object[32];
+				a[0] = root;
+				a[1] = newPath(shift, tailNode);
+				newRoot = new Node(a);
+				newShift += 5;
+			} else {
+				newRoot = pushTail(shift, root, tailNode);
+			}
+			return new Trie(cnt + 1, newShift, newRoot, new Object[] {val});
+		}
+
+		private Node pushTail(int level, Node parent, Node tailNode) {
+			int sub = ((cnt - 1) >>> level) & 31;
+			Object[] a = parent.array.clone();
+			Node insert;
+			if (level == 5)
+				insert = tailNode;
+			else {
+				Node child = (Node) parent.array[sub];
+				insert = child != null ? pushTail(level - 5, child, tailNode) : newPath(level - 5, tailNode);
+			}
+			a[sub] = insert;
+			return new Node(a);
+		}
+
+		private static Node newPath(int level, Node node) {
+			if (level == 0)
+				return node;
+			Object[] a = new Object[32];
+			a[0] = newPath(level - 5, node);
+			return new Node(a);
+		}
+	}
+
+	private static final PersistentVector<?> EMPTY = new PersistentVector<>(Trie.EMPTY, 0, 0);
+
+	private final Trie trie;
+	private final int start, end;
+
+	private PersistentVector(Trie trie, int start, int end) {
+		this.trie = trie;
+		this.start = start;
+		this.end = end;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> PersistentVector<T> empty() {
+		return (PersistentVector<T>) EMPTY;
+	}
+
+	@SafeVarargs
+	static <T> PersistentVector<T> of(T... elements) {
+		PersistentVector<T> v = empty();
+		for (T e : elements)
+			v = v.append(e);
+		return v;
+	}
+
+	static <T> PersistentVector<T> fromList(List<T> xs) {
+		PersistentVector<T> v = empty();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			v = v.append(xs.head);
+		return v;
+	}
+
+	int size() {
+		return end - start;
+	}
+
+	boolean isEmpty() {
+		return start == end;
+	}
+
+	private void check(int i) {
+		if (i < 0 || i >= size())
+			throw new NoSuchElementException("index " + i + " of " + size());
+	}
+
+	@SuppressWarnings("unchecked")
+	T get(int i) {
+		check(i);
+		int j = start + i;
+		return (T) trie.arrayFor(j)[j & 31];
+	}
+
+	PersistentVector<T> update(int i, T value) {
+		check(i);
+		return new PersistentVector<>(trie.assoc(start + i, value), start, end);
+	}
+
+	PersistentVector<T> append(T value) {
+		// a slice that ends before the trie does overwrites the next slot instead
+		Trie t = end == trie.cnt ? trie.push(value) : trie.assoc(end, value);
+		return new PersistentVector<>(t, start, end + 1);
+	}
+
+	// elements [from, to), in O(1); keeps the whole underlying trie alive
+	PersistentVector<T> slice(int from, int to) {
+		if (from < 0 || to > size() || from > to)
+			throw new IndexOutOfBoundsException("slice " + from + ".." + to + " of " + size());
+		return new PersistentVector<>(trie, start + from, start + to);
+	}
+
+	PersistentVector<T> take(int n) {
+		return slice(0, Math.max(0, Math.min(n, size())));
+	}
+
+	PersistentVector<T> drop(int n) {
+		return slice(Math.max(0, Math.min(n, size())), size());
+	}
+
+	// left to right, one leaf array at a time
+	@SuppressWarnings("unchecked")
+	<R> R foldl(R z, BiFunction<R, ? super T, R> op) {
+		int i = start;
+		while (i < end) {
+			Object[] leaf = trie.arrayFor(i);
+			int hi = Math.min(end, (i | 31) + 1);
+			for (; i < hi; i++)
+				z = op.apply(z, (T) leaf[i & 31]);
+		}
+		return z;
+	}
+
+	@SuppressWarnings("unchecked")
+	List<T> toList() {
+		// walk backwards, one leaf array at a time
+		List<T> xs = List.empty();
+		int i = end - 1;
+		while (i >= start) {
+			Object[] leaf = trie.arrayFor(i);
+			int lo = Math.max(start, i & ~31);
+			for (; i >= lo; i--)
+				xs = List.list((T) leaf[i & 31], xs);
+		}
+		return xs;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size(); i++)
+			sb.append(i == 0 ? "" : ", ").append(get(i));
+		return sb.append("]").toString();
+	}
+
+	public static void main(String[] args) {
+		PersistentVector<Integer> v = of(1, 3, 3, 7);
+		PersistentVector<Integer> w = v.update(0, 0).append(42);
+		System.out.println(v + " " + w + " " + w.slice(1, 4) + " " + w.drop(2).toList());
+
+		final int n = 1_000_000;
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(i);
+		List<Integer> xs = b.build();
+
+		long t0 = System.nanoTime();
+		PersistentVector<Integer> big = fromList(xs);
+		long t1 = System.nanoTime();
+		long sum = 0;
+		java.util.Random rnd = new java.util.Random(1);
+		for (int k = 0; k < 1000; k++)
+			sum += big.get(rnd.nextInt(n));
+		long t2 = System.nanoTime();
+		for (int k = 0; k < 1000; k++)
+			sum -= StackSafe.drop(xs, rnd.nextInt(n)).head;
+		long t3 = System.nanoTime();
+		System.out.printf("build %,d: %d ms; 1000 random reads: vector %.2f ms, list %.2f ms%n",
+				n, (t1 - t0) / 1_000_000, (t2 - t1) / 1e6, (t3 - t2) / 1e6);
+		System.out.println("round trip equal: " + StackSafe.foldl(big.toList(), 0L, (s, x) -> s + x).equals(StackSafe.foldl(xs, 0L, (s, x) -> s + x)));
+	}
+}
@@ -0,0 +1,106 @@
+package fp;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fused map/filter over a List: the stages are composed into a single
+ * consumer, and a terminal operation pushes every element through it in one
+ * pass, without building intermediate lists.
+ *
+ *   Pipeline.of(xs).map(f).filter(p).foldl(z, op)
+ */
+final class Pipeline<S, T> {
+	private final List<S> source;
+	// wraps the downstream consumer of T into a consumer of source elements
+	private final Function<Consumer<T>, Consumer<S>> stages;
+
+	private Pipeline(List<S> source, Function<Consumer<T>, Consumer<S>> stages) {
+		this.source = source;
+		this.stages = stages;
+	}
+
+	static <T> Pipeline<T, T> of(List<T> xs) {
+		return new Pipeline<>(xs, down -> down);
+	}
+
+	<R> Pipeline<S, R> map(Function<T, R> f) {
+		return new Pipeline<>(source, down -> stages.apply(t -> down.accept(f.apply(t))));
+	}
+
+	Pipeline<S, T> filter(Predicate<T> p) {
+		return new Pipeline<>(source, down -> stages.apply(t -> {
+			if (p.test(t))
+				down.accept(t);
+		}));
+	}
+
+	private void run(Consumer<T> sink) {
+		Consumer<S> c = stages.apply(sink);
+		for (List<S> xs = source; !xs.isEmpty(); xs = xs.tail)
+			c.accept(xs.head);
+	}
+
+	<R> R foldl(R z, BiFunction<R, T, R> op) {
+		// the one and only accumulator
+		class Acc implements Consumer<T> {
+			R value = z;
+
+			@Override
+			public void accept(T t) {
+				value = op.apply(value, t);
+			}
+		}
+		Acc acc = new Acc();
+		run(acc);
+		return acc.value;
+	}
+
+	void forEach(Consumer<T> c) {
+		run(c);
+	}
+
+	List<T> toList() {
+		List.Builder<T> b = new List.Builder<>();
+		run(b::add);
+		return b.build();
+	}
+
+	// bytes allocated by the current thread so far (HotSpot specific)
+	static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	public static void main(String[] args) {
+		System.out.println(Pipeline.of(List.list(1, 3, 3, 7)).map(x -> x * x).filter(x -> x < 20).toList());
+
+		// App2.maptr recurses once per element, keep n within the default stack
+		final int n = 10_000;
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(i & 127);
+		List<Integer> xs = b.build();
+
+		// values stay within the Integer cache, so only list cells are allocated
+		Function<Integer, Integer> f = x -> (x * 3) & 127;
+		Predicate<Integer> p = x -> x % 2 == 0;
+		BiFunction<Integer, Integer, Integer> op = (s, x) -> (s + x) & 127;
+
+		for (int round = 0; round < 3; round++) {
+			long a0 = allocatedBytes();
+			int chained = StackSafe.foldl(StackSafe.filter(StackSafe.map(xs, f), p), 0, op);
+			long a1 = allocatedBytes();
+			int maptr = StackSafe.foldl(StackSafe.filter(App2.maptr(xs, f), p), 0, op);
+			long a2 = allocatedBytes();
+			int fused = Pipeline.of(xs).map(f).filter(p).foldl(0, op);
+			long a3 = allocatedBytes();
+
+			System.out.printf("allocated: map+filter+foldl %,d bytes, maptr+filter+foldl %,d bytes, pipeline %,d bytes (%d, %d, %d)%n",
+					a1 - a0, a2 - a1, a3 - a2, chained, maptr, fused);
+		}
+	}
+}
@@ -0,0 +1,319 @@
+package fp;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Persistent sorted map as a red-black tree: insert as in Okasaki's "Purely
+ * Functional Data Structures", delete after Kahrs' "Red-black trees with
+ * types". Every operation copies only the O(log n) nodes on its path and
+ * shares the rest of the tree with the previous version.
+ * Iteration and keys()/values()/toList() are in key order.
+ */
+final class RedBlackMap<K, V> implements Iterable<java.util.Map.Entry<K, V>> {
+	private static final class Node<K, V> {
+		final boolean red;
+		final Node<K, V> left, right;
+		final K key;
+		final V value;
+
+		Node(boolean red, Node<K, V> left, K key, V value, Node<K, V> right) {
+			this.red = red;
+			this.left = left;
+			this.key = key;
+			this.value = value;
+			this.right = right;
+		}
+
+		Node<K, V> paint(boolean red) {
+			return this.red == red ? this : new Node<>(red, left, key, value, right);
+		}
+	}
+
+	private static final Comparator<?> NATURAL = Comparator.naturalOrder();
+
+	private final Comparator<? super K> cmp;
+	private final Node<K, V> root;
+	private final int size;
+
+	private RedBlackMap(Comparator<? super K> cmp, Node<K, V> root, int size) {
+		this.cmp = cmp;
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <K extends Comparable<? super K>, V> RedBlackMap<K, V> empty() {
+		return new RedBlackMap<>((Comparator<? super K>) NATURAL, null, 0);
+	}
+
+	static <K, V> RedBlackMap<K, V> empty(Comparator<? super K> cmp) {
+		return new RedBlackMap<>(cmp, null, 0);
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return root == null;
+	}
+
+	private Node<K, V> find(K key) {
+		Node<K, V> n = root;
+		while (n != null) {
+			int c = cmp.compare(key, n.key);
+			if (c == 0)
+				return n;
+			n = c < 0 ? n.left : n.right;
+		}
+		return null;
+	}
+
+	V get(K key) {
+		Node<K, V> n = find(key);
+		return n == null ? null : n.value;
+	}
+
+	boolean containsKey(K key) {
+		return find(key) != null;
+	}
+
+	// a new map where key is bound to value
+	RedBlackMap<K, V> insert(K key, V value) {
+		Node<K, V> n = find(key);
+		if (n != null && n.value == value)
+			return this;
+		return new RedBlackMap<>(cmp, ins(root, key, value).paint(false), n == null ? size + 1 : size);
+	}
+
+	// a new map without key
+	RedBlackMap<K, V> delete(K key) {
+		if (find(key) == null)
+			return this;
+		Node<K, V> n = del(root, key);
+		return new RedBlackMap<>(cmp, n == null ? null : n.paint(false), size - 1);
+	}
+
+	private static boolean isRed(Node<?, ?> n) {
+		return n != null && n.red;
+	}
+
+	private static boolean isBlack(Node<?, ?> n) {
+		return n != null && !n.red;
+	}
+
+	private Node<K, V> ins(Node<K, V> n, K key, V value) {
+		if (n == null)
+			return new Node<>(true, null, key, value, null);
+		int c = cmp.compare(key, n.key);
+		if (c == 0)
+			return new Node<>(n.red, n.left, key, value, n.right);
+		if (n.red)
+			return c < 0 ? new Node<>(true, ins(n.left, key, value), n.key, n.value, n.right)
+					: new Node<>(true, n.left, n.key, n.value, ins(n.right, key, value));
+		return c < 0 ? balance(ins(n.left, key, value), n.key, n.value, n.right)
+				: balance(n.left, n.key, n.value, ins(n.right, key, value));
+	}
+
+	// a black node over l and r, rotated into a red one over two blacks if l or r has a red-red pair
+	private static <K, V> Node<K, V> balance(Node<K, V> l, K k, V v, Node<K, V> r) {
+		if (isRed(l) && isRed(r))
+			return new Node<>(true, l.paint(false), k, v, r.paint(false));
+		if (isRed(l)) {
+			if (isRed(l.left))
+				return new Node<>(true, l.left.paint(false), l.key, l.value, new Node<>(false, l.right, k, v, r));
+			if (isRed(l.right))
+				return new Node<>(true, new Node<>(false, l.left, l.key, l.value, l.right.left), l.right.key, l.right.value,
+						new Node<>(false, l.right.right, k, v, r));
+		}
+		if (isRed(r)) {
+			if (isRed(r.right))
+				return new Node<>(true, new Node<>(false, l, k, v, r.left), r.key, r.value, r.right.paint(false));
+			if (isRed(r.left))
+				return new Node<>(true, new Node<>(false, l, k, v, r.left.left), r.left.key, r.left.value,
+						new Node<>(false, r.left.right, r.key, r.value, r.right));
+		}
+		return new Node<>(false, l, k, v, r);
+	}
+
+	// n contains key; the result is one black level lower iff n was black
+	private Node<K, V> del(Node<K, V> n, K key) {
+		int c = cmp.compare(key, n.key);
+		if (c < 0)
+			return isBlack(n.left) ? balLeft(del(n.left, key), n.key, n.value, n.right)
+					: new Node<>(true, del(n.left, key), n.key, n.value, n.right);
+		if (c > 0)
+			return isBlack(n.right) ? balRight(n.left, n.key, n.value, del(n.right, key))
+					: new Node<>(true, n.left, n.key, n.value, del(n.right, key));
+		return fuse(n.left, n.right);
+	}
+
+	// l has lost a black level
+	private static <K, V> Node<K, V> balLeft(Node<K, V> l, K k, V v, Node<K, V> r) {
+		if (isRed(l))
+			return new Node<>(true, l.paint(false), k, v, r);
+		if (isBlack(r))
+			return balance(l, k, v, r.paint(true));
+		if (isRed(r) && isBlack(r.left))
+			return new Node<>(true, new Node<>(false, l, k, v, r.left.left), r.left.key, r.left.value,
+					balance(r.left.right, r.key, r.value, r.right.paint(true)));
+		throw new IllegalStateException("red-black invariant violated");
+	}
+
+	// r has lost a black level
+	private static <K, V> Node<K, V> balRight(Node<K, V> l, K k, V v, Node<K, V> r) {
+		if (isRed(r))
+			return new Node<>(true, l, k, v, r.paint(false));
+		if (isBlack(l))
+			return balance(l.paint(true), k, v, r);
+		if (isRed(l) && isBlack(l.right))
+			return new Node<>(true, balance(l.left.paint(true), l.key, l.value, l.right.left), l.right.key, l.right.value,
+					new Node<>(false, l.right.right, k, v, r));
+		throw new IllegalStateException("red-black invariant violated");
+	}
+
+	// joins two trees of equal black height, all keys of l before those of r
+	private static <K, V> Node<K, V> fuse(Node<K, V> l, Node<K, V> r) {
+		if (l == null)
+			return r;
+		if (r == null)
+			return l;
+		if (l.red && r.red) {
+			Node<K, V> m = fuse(l.right, r.left);
+			if (isRed(m))
+				return new Node<>(true, new Node<>(true, l.left, l.key, l.value, m.left), m.key, m.value,
+						new Node<>(true, m.right, r.key, r.value, r.right));
+			return new Node<>(true, l.left, l.key, l.value, new Node<>(true, m, r.key, r.value, r.right));
+		}
+		if (!l.red && !r.red) {
+			Node<K, V> m = fuse(l.right, r.left);
+			if (isRed(m))
+				return new Node<>(true, new Node<>(false, l.left, l.key, l.value, m.left), m.key, m.value,
+						new Node<>(false, m.right, r.key, r.value, r.right));
+			return balLeft(l.left, l.key, l.value, new Node<>(false, m, r.key, r.value, r.right));
+		}
+		if (r.red)
+			return new Node<>(true, fuse(l, r.left), r.key, r.value, r.right);
+		return new Node<>(true, l.left, l.key, l.value, fuse(l.right, r));
+	}
+
+	@Override
+	public Iterator<java.util.Map.Entry<K, V>> iterator() {
+		// the stack holds the left spine still to visit, at most 2 log n deep
+		ArrayDeque<Node<K, V>> stack = new ArrayDeque<>();
+		for (Node<K, V> n = root; n != null; n = n.left)
+			stack.push(n);
+
+		return new Iterator<java.util.Map.Entry<K, V>>() {
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public java.util.Map.Entry<K, V> next() {
+				if (stack.isEmpty())
+					throw new NoSuchElementException();
+				Node<K, V> n = stack.pop();
+				for (Node<K, V> m = n.right; m != null; m = m.left)
+					stack.push(m);
+				return new AbstractMap.SimpleImmutableEntry<>(n.key, n.value);
+			}
+		};
+	}
+
+	// built back to front, in a reverse in-order walk, so no reversal is needed
+	private static <K, V, T> List<T> collect(Node<K, V> n, List<T> acc, Function<Node<K, V>, T> f) {
+		for (; n != null; n = n.left)
+			acc = List.list(f.apply(n), collect(n.right, acc, f));
+		return acc;
+	}
+
+	List<K> keys() {
+		return collect(root, List.empty(), n -> n.key);
+	}
+
+	List<V> values() {
+		return collect(root, List.empty(), n -> n.value);
+	}
+
+	List<java.util.Map.Entry<K, V>> toList() {
+		List.Builder<java.util.Map.Entry<K, V>> b = new List.Builder<>();
+		for (java.util.Map.Entry<K, V> e : this)
+			b.add(e);
+		return b.build();
+	}
+
+	// black height, or -1 if a red node has a red child or the black heights differ
+	static int blackHeight(RedBlackMap<?, ?> m) {
+		return blackHeight(m.root);
+	}
+
+	private static int blackHeight(Node<?, ?> n) {
+		if (n == null)
+			return 0;
+		if (n.red && (isRed(n.left) || isRed(n.right)))
+			return -1;
+		int l = blackHeight(n.left), r = blackHeight(n.right);
+		if (l < 0 || l != r)
+			return -1;
+		return l + (n.red ? 0 : 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (java.util.Map.Entry<K, V> e : this)
+			sb.append(sb.length() == 1 ? "" : ", ").append(e.getKey()).append("=").append(e.getValue());
+		return sb.append("}").toString();
+	}
+
+	public static void main(String[] args) {
+		RedBlackMap<String, Integer> m = RedBlackMap.<String, Integer>empty()
+				.insert("c", 3).insert("a", 1).insert("d", 4).insert("b", 2);
+		RedBlackMap<String, Integer> m2 = m.delete("c").insert("a", 0);
+		System.out.println(m + " " + m2 + " " + m2.keys() + " " + m.values());
+
+		// against java.util.TreeMap, checking the invariants after every step
+		java.util.Random rnd = new java.util.Random(42);
+		java.util.TreeMap<Integer, Integer> ref = new java.util.TreeMap<>();
+		RedBlackMap<Integer, Integer> t = empty();
+		boolean ok = true;
+		for (int i = 0; i < 200_000; i++) {
+			int k = rnd.nextInt(1000);
+			if (rnd.nextInt(3) == 0) {
+				ref.remove(k);
+				t = t.delete(k);
+			} else {
+				ref.put(k, i);
+				t = t.insert(k, i);
+			}
+			ok &= blackHeight(t) >= 0 && t.size() == ref.size() && java.util.Objects.equals(t.get(k), ref.get(k));
+		}
+		Iterator<Integer> expected = ref.keySet().iterator();
+		for (List<Integer> ks = t.keys(); !ks.isEmpty(); ks = ks.tail)
+			ok &= ks.head.equals(expected.next());
+		System.out.println("matches TreeMap, invariants hold: " + ok);
+
+		// keeping a sorted collection: insertion sort from scratch vs one insert
+		final int n = 1_000;
+		List<Integer> xs = List.empty();
+		RedBlackMap<Integer, Integer> sorted = empty();
+		long t0 = System.nanoTime();
+		for (int i = 0; i < n; i++) {
+			xs = List.list(rnd.nextInt(), xs);
+			App1.isort(xs);
+		}
+		long t1 = System.nanoTime();
+		for (int i = 0; i < n; i++)
+			sorted = sorted.insert(rnd.nextInt(), i);
+		long t2 = System.nanoTime();
+		System.out.printf("%,d inserts into a sorted collection: re-sorting %d ms, red-black tree %.2f ms, black height %d%n",
+				n, (t1 - t0) / 1_000_000, (t2 - t1) / 1e6, blackHeight(sorted));
+	}
+}
@@ -0,0 +1,85 @@
+package fp;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Persistent sorted set, a RedBlackMap whose values are ignored.
+ */
+final class RedBlackSet<T> implements Iterable<T> {
+	private final RedBlackMap<T, Boolean> map;
+
+	private RedBlackSet(RedBlackMap<T, Boolean> map) {
+		this.map = map;
+	}
+
+	static <T extends Comparable<? super T>> RedBlackSet<T> empty() {
+		return new RedBlackSet<>(RedBlackMap.<T, Boolean>empty());
+	}
+
+	static <T> RedBlackSet<T> empty(Comparator<? super T> cmp) {
+		return new RedBlackSet<>(RedBlackMap.empty(cmp));
+	}
+
+	static <T extends Comparable<? super T>> RedBlackSet<T> fromList(List<T> xs) {
+		RedBlackSet<T> s = empty();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			s = s.insert(xs.head);
+		return s;
+	}
+
+	int size() {
+		return map.size();
+	}
+
+	boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	boolean contains(T x) {
+		return map.containsKey(x);
+	}
+
+	RedBlackSet<T> insert(T x) {
+		RedBlackMap<T, Boolean> m = map.insert(x, Boolean.TRUE);
+		return m == map ? this : new RedBlackSet<>(m);
+	}
+
+	RedBlackSet<T> delete(T x) {
+		RedBlackMap<T, Boolean> m = map.delete(x);
+		return m == map ? this : new RedBlackSet<>(m);
+	}
+
+	// in order
+	List<T> toList() {
+		return map.keys();
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		Iterator<java.util.Map.Entry<T, Boolean>> it = map.iterator();
+		return new Iterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return it.next().getKey();
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+	public static void main(String[] args) {
+		RedBlackSet<Integer> s = fromList(List.list(7, 3, 1, 3, 3, 7));
+		RedBlackSet<Integer> t = s.insert(42).delete(3);
+		System.out.println(s + " " + t + " " + s.contains(3) + " " + t.contains(3) + " " + t.size());
+		System.out.println(App1.isort(List.list(7, 3, 1, 3, 3, 7)) + " deduplicated: " + s.toList());
+	}
+}
@@ -0,0 +1,116 @@
+package fp;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static fp.List.empty;
+import static fp.List.list;
+
+/**
+ * The list operations from App1/App2, written as loops: they run in constant
+ * stack and yield the same results for lists of any length.
+ * Results are built front to back with List.Builder, so no reversed copy
+ * is needed.
+ */
+class StackSafe {
+	static <T> boolean contains(List<T> xs, T obj) {
+		for (; !xs.isEmpty(); xs = xs.tail) {
+			if (xs.head.equals(obj))
+				return true;
+		}
+		return false;
+	}
+
+	static <T> int length(List<T> xs) {
+		int n = 0;
+		for (; !xs.isEmpty(); xs = xs.tail)
+			n++;
+		return n;
+	}
+
+	static <T> List<T> take(List<T> xs, int n) {
+		List.Builder<T> b = new List.Builder<>();
+		for (; n > 0 && !xs.isEmpty(); n--, xs = xs.tail)
+			b.add(xs.head);
+		return b.build();
+	}
+
+	static <T> List<T> drop(List<T> xs, int n) {
+		for (; n > 0 && !xs.isEmpty(); n--)
+			xs = xs.tail;
+		return xs;
+	}
+
+	// ys is shared, not copied
+	static <T> List<T> append(List<T> xs, List<T> ys) {
+		List.Builder<T> b = new List.Builder<>();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			b.add(xs.head);
+		return b.build(ys);
+	}
+
+	static <T> List<T> reverse(List<T> xs) {
+		List<T> ys = empty();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			ys = list(xs.head, ys);
+		return ys;
+	}
+
+	static <T, R> List<R> map(List<T> xs, Function<T, R> f) {
+		List.Builder<R> b = new List.Builder<>();
+		for (; !xs.isEmpty(); xs = xs.tail)
+			b.add(f.apply(xs.head));
+		return b.build();
+	}
+
+	static <T> List<T> filter(List<T> xs, Predicate<T> p) {
+		List.Builder<T> b = new List.Builder<>();
+		for (; !xs.isEmpty(); xs = xs.tail) {
+			if (p.test(xs.head))
+				b.add(xs.head);
+		}
+		return b.build();
+	}
+
+	static <T, R> R foldl(List<T> xs, R z, BiFunction<R, T, R> op) {
+		for (; !xs.isEmpty(); xs = xs.tail)
+			z = op.apply(z, xs.head);
+		return z;
+	}
+
+	// a cons list can only be walked forward, so buffer the elements once
+	@SuppressWarnings("unchecked")
+	static <T, R> R foldr(List<T> xs, R z, BiFunction<T, R, R> op) {
+		Object[] buf = new Object[length(xs)];
+		for (int i = 0; !xs.isEmpty(); xs = xs.tail)
+			buf[i++] = xs.head;
+		for (int i = buf.length - 1; i >= 0; i--)
+			z = op.apply((T) buf[i], z);
+		return z;
+	}
+
+	public static void main(String[] args) {
+		List<Integer> xs = list(7, 3, 1, 3);
+		System.out.println("length: " + length(xs) + " == " + App1.length(xs));
+		System.out.println("take 3: " + take(xs, 3) + " == " + App1.take(xs, 3));
+		System.out.println("append: " + append(xs, list(0)) + " == " + App1.append(xs, list(0)));
+		System.out.println("reverse: " + reverse(xs) + " == " + App1.reverse(xs));
+		System.out.println("squares: " + map(xs, x -> x * x) + " == " + App1.map(xs, x -> x * x));
+		System.out.println("lt 5: " + filter(xs, x -> x < 5) + " == " + App1.filter(xs, x -> x < 5));
+		System.out.println("foldr: " + foldr(xs, "", (x, s) -> s + x) + " == " + App2.foldr(xs, "", (x, s) -> s + x));
+
+		// far beyond what the recursive versions survive
+		final int n = 10_000_000;
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(i & 127);
+		List<Integer> big = b.build();
+
+		long t0 = System.nanoTime();
+		List<Integer> r = filter(map(reverse(append(take(big, n), list(1))), x -> x + 1), x -> x % 2 == 0);
+		long t1 = System.nanoTime();
+		System.out.printf("length %d, foldl %d, foldr %d in %d ms%n",
+				length(r), foldl(r, 0L, (s, x) -> s + x), foldr(r, 0L, (x, s) -> s + x), (t1 - t0) / 1_000_000);
+	}
+}
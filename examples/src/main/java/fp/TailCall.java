@@ -0,0 +1,50 @@
+package fp;
+
+/**
+ * Trampoline for tail recursion: instead of calling itself, a tail-recursive
+ * function returns the next step as a TailCall (or done(result)), and
+ * invoke() runs the steps in a loop, in constant stack.
+ */
+@FunctionalInterface
+interface TailCall<T> {
+	TailCall<T> apply();
+
+	default boolean isComplete() {
+		return false;
+	}
+
+	default T result() {
+		throw new IllegalStateException("not complete");
+	}
+
+	default T invoke() {
+		TailCall<T> t = this;
+		while (!t.isComplete())
+			t = t.apply();
+		return t.result();
+	}
+
+	// marks the tail call; only there for readability
+	static <T> TailCall<T> call(TailCall<T> next) {
+		return next;
+	}
+
+	static <T> TailCall<T> done(T value) {
+		return new TailCall<T>() {
+			@Override
+			public TailCall<T> apply() {
+				throw new IllegalStateException("already complete");
+			}
+
+			@Override
+			public boolean isComplete() {
+				return true;
+			}
+
+			@Override
+			public T result() {
+				return value;
+			}
+		};
+	}
+}
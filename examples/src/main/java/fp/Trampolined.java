@@ -0,0 +1,56 @@
+package fp;
+
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+import static fp.TailCall.call;
+import static fp.TailCall.done;
+
+/**
+ * Tail-recursive definitions from App1/App2, bounced through TailCall so
+ * that they no longer need one stack frame per step.
+ */
+class Trampolined {
+	static <T, R> TailCall<R> foldl(List<T> xs, R z, BiFunction<R, T, R> op) {
+		if (xs.isEmpty()) return done(z);
+		else return call(() -> foldl(xs.tail, op.apply(z, xs.head), op));
+	}
+
+	static <T> TailCall<T> reduce(List<T> xs, T z, BinaryOperator<T> op) {
+		if (xs.isEmpty()) return done(z);
+		else return call(() -> reduce(xs.tail, op.apply(z, xs.head), op));
+	}
+
+	static TailCall<Long> fib2(long a, long b, int i) {
+		if (i == 0) return done(a);
+		else if (i == 1) return done(b);
+		else return call(() -> fib2(b, a+b, i-1));
+	}
+
+	public static void main(String[] args) {
+		System.out.println(fib2(0, 1, 50).invoke() + " == " + App1.fib2(0, 1, 50));
+		System.out.println(reduce(List.list(1, 3, 3, 7), 0, Integer::sum).invoke());
+
+		final int n = 10_000_000;
+		List.Builder<Integer> b = new List.Builder<>();
+		for (int i = 0; i < n; i++)
+			b.add(i & 127);
+		List<Integer> xs = b.build();
+
+		try {
+			App2.foldl(xs, 0L, (s, x) -> s + x);
+		} catch (StackOverflowError e) {
+			System.out.println("App2.foldl: StackOverflowError");
+		}
+
+		for (int round = 0; round < 5; round++) {
+			long t0 = System.nanoTime();
+			long loop = StackSafe.foldl(xs, 0L, (s, x) -> s + x);
+			long t1 = System.nanoTime();
+			long tramp = foldl(xs, 0L, (s, x) -> s + x).invoke();
+			long t2 = System.nanoTime();
+			System.out.printf("foldl over %,d: loop %d ms, trampoline %d ms (%d, %d)%n",
+					n, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, loop, tramp);
+		}
+	}
+}
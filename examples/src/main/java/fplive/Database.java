@@ -1,61 +1,115 @@
 package fplive;
 
-import com.google.gson.Gson;
-import com.google.gson.annotations.SerializedName;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class Database {
-	private static java.util.List<Student> students = new java.util.LinkedList<>();
-	private static Map<Integer, Transcript> tors = new HashMap<>();
-
-	private static class Helper {
-		@SerializedName("m")
-		int matrikel;
-		@SerializedName("n")
-		String name;
-		@SerializedName("g")
-		int grade;
-	}
-
-	static {
-		{
-			// deserialize students
-			InputStreamReader reader = new InputStreamReader(Database.class.getClassLoader().getResourceAsStream("students.json"));
-			Type type = new TypeToken<java.util.List<Student>>() {}.getType();
-			students = new Gson().fromJson(reader, type);
+	// loaded on first access: the JVM initializes Data only when it is first used
+	private static final class Data {
+		static final java.util.List<Student> students;
+		static final TranscriptColumns tors;
+
+		// indexes, built once right after loading
+		static final Map<Integer, Student> byMatrikel = new HashMap<>();
+		static final Map<String, java.util.List<Integer>> matrikelsByClass = new HashMap<>();
+
+		static {
+			try (Reader s = open("students.json"); Reader t = open("tors.json")) {
+				students = readStudents(s);
+				tors = TranscriptColumns.read(t);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			for (Student s : students) {
+				byMatrikel.put(s.getMatrikel(), s);
+				for (String c : s.getClasses())
+					matrikelsByClass.computeIfAbsent(c, k -> new ArrayList<>()).add(s.getMatrikel());
+			}
 		}
+	}
+
+	private static Reader open(String resource) {
+		return new InputStreamReader(Database.class.getClassLoader().getResourceAsStream(resource), StandardCharsets.UTF_8);
+	}
 
-		{
-			// deserialize transcripts and add to individual records
-			InputStreamReader reader = new InputStreamReader(Database.class.getClassLoader().getResourceAsStream("tors.json"));
-			Type type = new TypeToken<java.util.List<Helper>>() {}.getType();
-			java.util.List<Helper> hs = new Gson().fromJson(reader, type);
-			for (Helper h : hs) {
-				Transcript t = new Transcript();
-				if (tors.containsKey(h.matrikel))
-					t = tors.get(h.matrikel);
-				else
-					tors.put(h.matrikel, t);
-
-				t.records.add(new Record(h.name, h.grade));
+	// streams the array one student at a time, without an intermediate tree
+	static java.util.List<Student> readStudents(Reader in) throws IOException {
+		java.util.List<Student> students = new ArrayList<>();
+		JsonReader reader = new JsonReader(in);
+		reader.beginArray();
+		while (reader.hasNext()) {
+			int matrikel = 0;
+			String name = null;
+			java.util.List<String> classes = new ArrayList<>();
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "matrikel":
+						matrikel = reader.nextInt();
+						break;
+					case "name":
+						name = reader.nextString();
+						break;
+					case "classes":
+						reader.beginArray();
+						while (reader.hasNext())
+							classes.add(reader.nextString());
+						reader.endArray();
+						break;
+					default:
+						reader.skipValue();
+				}
 			}
+			reader.endObject();
+			students.add(new Student(matrikel, name, classes));
 		}
+		reader.endArray();
+		return students;
 	}
 
 	public static java.util.List<Student> getStudents() {
-		return Collections.unmodifiableList(students);
+		return Collections.unmodifiableList(Data.students);
 	}
 
+	// a view on the columns, built on each call
 	public static Transcript getToR(int matrikel) {
-		return tors.get(matrikel);
+		return Data.tors.transcript(matrikel);
+	}
+
+	public static TranscriptColumns columns() {
+		return Data.tors;
+	}
+
+	public static Student getStudent(int matrikel) {
+		return Data.byMatrikel.get(matrikel);
+	}
+
+	// the queries below take time in the size of their result, not of the database
+
+	public static java.util.List<Integer> matrikelsIn(String className) {
+		return Collections.unmodifiableList(Data.matrikelsByClass.getOrDefault(className, Collections.emptyList()));
+	}
+
+	public static java.util.List<Student> studentsIn(String className) {
+		java.util.List<Integer> ms = matrikelsIn(className);
+		java.util.List<Student> result = new ArrayList<>(ms.size());
+		for (int m : ms)
+			result.add(Data.byMatrikel.get(m));
+		return Collections.unmodifiableList(result);
+	}
+
+	// every grade recorded for className, from all transcripts
+	public static java.util.List<Record> recordsIn(String className) {
+		return Collections.unmodifiableList(Data.tors.records(className));
 	}
 }
@@ -22,5 +22,10 @@ public class ImperativeFunctional {
 				.map(Database::getToR)
 				.flatMap(t -> t.records.stream())
 				.forEach(System.out::println);
+
+		// mit Index: nur die Studierenden in Programmieren 3 werden besucht
+		for (Student s : Database.studentsIn("Programmieren 3"))
+			for (Record r : Database.getToR(s.getMatrikel()))
+				System.out.println(r);
 	}
 }
@@ -0,0 +1,160 @@
+package fplive;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Database's former whole-file Gson.fromJson, streaming into objects, and
+ * streaming into TranscriptColumns, on a generated tors.json that is large
+ * enough to matter.
+ */
+public class LoaderBenchmark {
+	private static class Helper {
+		@SerializedName("m")
+		int matrikel;
+		@SerializedName("n")
+		String name;
+		@SerializedName("g")
+		int grade;
+	}
+
+	// what Database's static initializer used to do
+	static Map<Integer, Transcript> readToRsTree(Reader in) {
+		java.util.List<Helper> hs = new Gson().fromJson(in, new TypeToken<java.util.List<Helper>>() {}.getType());
+		Map<Integer, Transcript> tors = new HashMap<>();
+		for (Helper h : hs)
+			tors.computeIfAbsent(h.matrikel, m -> new Transcript()).records.add(new Record(h.name, h.grade));
+		return tors;
+	}
+
+	// streaming as well, but into Transcript and Record objects
+	static Map<Integer, Transcript> readToRs(Reader in) throws IOException {
+		Map<Integer, Transcript> tors = new HashMap<>();
+		Map<String, String> names = new HashMap<>();  // one String per class, not per record
+		JsonReader reader = new JsonReader(in);
+		reader.beginArray();
+		while (reader.hasNext()) {
+			int matrikel = 0, grade = 0;
+			String name = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "m":
+						matrikel = reader.nextInt();
+						break;
+					case "n":
+						name = names.computeIfAbsent(reader.nextString(), n -> n);
+						break;
+					case "g":
+						grade = reader.nextInt();
+						break;
+					default:
+						reader.skipValue();
+				}
+			}
+			reader.endObject();
+			tors.computeIfAbsent(matrikel, m -> new Transcript()).records.add(new Record(name, grade));
+		}
+		reader.endArray();
+		return tors;
+	}
+
+	interface Loader<R> {
+		R load(Reader in) throws IOException;
+	}
+
+	static int rows(Map<Integer, Transcript> tors) {
+		int n = 0;
+		for (Transcript t : tors.values())
+			n += t.records.size();
+		return n;
+	}
+
+	static void gc() {
+		for (int i = 0; i < 3; i++)
+			System.gc();
+	}
+
+	// peak heap use above the baseline while loading, from the pools' peak counters
+	// rows counts the grades in the result, which must come to expected
+	static <R> void measure(String label, Path file, Loader<R> loader, ToIntFunction<R> rows, int expected) throws IOException {
+		gc();
+		long base = 0;
+		for (MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans())
+			if (p.getType() == MemoryType.HEAP) {
+				base += p.getUsage().getUsed();
+				p.resetPeakUsage();
+			}
+
+		long t0 = System.nanoTime();
+		R tors;
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			tors = loader.load(in);
+		}
+		long t1 = System.nanoTime();
+
+		long peak = 0;
+		for (MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans())
+			if (p.getType() == MemoryType.HEAP)
+				peak += p.getPeakUsage().getUsed();
+		gc();
+		long retained = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+
+		// uses the result after measuring, so it is retained up to here
+		int n = rows.applyAsInt(tors);
+		if (n != expected)
+			throw new IllegalStateException(label + " loaded " + n + " of " + expected + " grades");
+		System.out.printf("%-10s %5d ms, peak %4d MB, retained %4d MB, %,d grades%n", label, (t1 - t0) / 1_000_000,
+				(peak - base) >> 20, retained >> 20, n);
+	}
+
+	public static void main(String[] args) throws IOException {
+		// the lazy Database: loading the class no longer reads anything
+		long t0 = System.nanoTime();
+		Database.class.getName();
+		long t1 = System.nanoTime();
+		int n = Database.getStudents().size();
+		long t2 = System.nanoTime();
+		System.out.printf("Database: class ready in %.2f ms, first access (loads %d students) %.2f ms%n",
+				(t1 - t0) / 1e6, n, (t2 - t1) / 1e6);
+
+		final int records = 2_000_000;
+		String[] classes = {"Programmieren 1", "Programmieren 2", "Programmieren 3", "GdI", "GdI 2", "VV"};
+		Random rnd = new Random(42);
+		Path file = Files.createTempFile("tors", ".json");
+		try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			w.write("[\n");
+			for (int i = 0; i < records; i++)
+				w.write(String.format("%s  {\"m\": %d, \"n\": \"%s\", \"g\": %d}\n", i == 0 ? "" : ",",
+						i / 6, classes[rnd.nextInt(classes.length)], 100 + rnd.nextInt(400)));
+			w.write("]\n");
+		}
+		System.out.printf("%,d records, %d MB of JSON%n", records, Files.size(file) >> 20);
+
+		try {
+			for (int round = 0; round < 2; round++) {
+				measure("fromJson", file, LoaderBenchmark::readToRsTree, LoaderBenchmark::rows, records);
+				measure("streaming", file, LoaderBenchmark::readToRs, LoaderBenchmark::rows, records);
+				measure("columns", file, TranscriptColumns::read, TranscriptColumns::size, records);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
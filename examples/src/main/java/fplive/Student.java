@@ -12,6 +12,11 @@ public class Student {
 		this.name = name;
 	}
 
+	Student(int matrikel, String name, java.util.List<String> classes) {
+		this(matrikel, name);
+		this.classes = classes;
+	}
+
 	public int getMatrikel() {
 		return matrikel;
 	}
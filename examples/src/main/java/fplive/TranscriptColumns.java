@@ -0,0 +1,341 @@
+package fplive;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.Random;
+
+/**
+ * All transcripts as columns: one row per grade, stored in an int[] of
+ * matrikel numbers, a short[] of grades and a short[] of class ids that
+ * index a dictionary of class names. Rows are sorted by matrikel, so a
+ * transcript is a contiguous range. The aggregates are plain loops over
+ * primitive arrays; Transcript and Record objects are only created when
+ * asked for.
+ */
+public class TranscriptColumns {
+	private final int[] matrikel;
+	private final short[] grade;
+	private final short[] classId;
+	private final String[] classNames;
+	private final Map<String, Integer> classIds;
+	private final int[][] rowsByClass;
+
+	private TranscriptColumns(int[] matrikel, short[] grade, short[] classId, String[] classNames, Map<String, Integer> classIds) {
+		this.matrikel = matrikel;
+		this.grade = grade;
+		this.classId = classId;
+		this.classNames = classNames;
+		this.classIds = classIds;
+
+		int[] counts = countByClass();
+		rowsByClass = new int[classNames.length][];
+		for (int c = 0; c < classNames.length; c++)
+			rowsByClass[c] = new int[counts[c]];
+		int[] fill = new int[classNames.length];
+		for (int i = 0; i < classId.length; i++)
+			rowsByClass[classId[i]][fill[classId[i]]++] = i;
+	}
+
+	static final class Builder {
+		private int[] matrikel = new int[1024];
+		private short[] grade = new short[1024];
+		private short[] classId = new short[1024];
+		private final ArrayList<String> classNames = new ArrayList<>();
+		private final Map<String, Integer> classIds = new HashMap<>();
+		private int n;
+
+		Builder add(int m, String className, int g) {
+			if ((short) g != g)
+				throw new IllegalArgumentException("grade out of range: " + g);
+			Integer id = classIds.get(className);
+			if (id == null) {
+				if (classNames.size() > Short.MAX_VALUE)
+					throw new IllegalStateException("too many classes");
+				id = classNames.size();
+				classNames.add(className);
+				classIds.put(className, id);
+			}
+
+			if (n == matrikel.length) {
+				matrikel = Arrays.copyOf(matrikel, 2 * n);
+				grade = Arrays.copyOf(grade, 2 * n);
+				classId = Arrays.copyOf(classId, 2 * n);
+			}
+			matrikel[n] = m;
+			grade[n] = (short) g;
+			classId[n] = (short) (int) id;
+			n++;
+			return this;
+		}
+
+		TranscriptColumns build() {
+			// stable sort by matrikel: the row number breaks ties
+			long[] keys = new long[n];
+			for (int i = 0; i < n; i++)
+				keys[i] = ((long) matrikel[i] << 32) | i;
+			Arrays.sort(keys);
+
+			int[] m = new int[n];
+			short[] g = new short[n];
+			short[] c = new short[n];
+			for (int i = 0; i < n; i++) {
+				int row = (int) keys[i];
+				m[i] = matrikel[row];
+				g[i] = grade[row];
+				c[i] = classId[row];
+			}
+			return new TranscriptColumns(m, g, c, classNames.toArray(new String[0]), new HashMap<>(classIds));
+		}
+	}
+
+	// streams {"m": matrikel, "n": name, "g": grade} records straight into the columns
+	static TranscriptColumns read(Reader in) throws IOException {
+		Builder b = new Builder();
+		JsonReader reader = new JsonReader(in);
+		reader.beginArray();
+		while (reader.hasNext()) {
+			int m = 0, g = 0;
+			String name = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "m":
+						m = reader.nextInt();
+						break;
+					case "n":
+						name = reader.nextString();
+						break;
+					case "g":
+						g = reader.nextInt();
+						break;
+					default:
+						reader.skipValue();
+				}
+			}
+			reader.endObject();
+			b.add(m, name, g);
+		}
+		reader.endArray();
+		return b.build();
+	}
+
+	public int size() {
+		return matrikel.length;
+	}
+
+	public int classCount() {
+		return classNames.length;
+	}
+
+	public String className(int id) {
+		return classNames[id];
+	}
+
+	// -1 if there is no such class
+	public int classId(String className) {
+		Integer id = classIds.get(className);
+		return id == null ? -1 : id;
+	}
+
+	// first row with matrikel >= m
+	private int lowerBound(int m) {
+		int lo = 0, hi = matrikel.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (matrikel[mid] < m)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	// null if there are no grades for m, as for a missing transcript before
+	public Transcript transcript(int m) {
+		int i = lowerBound(m);
+		if (i == matrikel.length || matrikel[i] != m)
+			return null;
+		Transcript t = new Transcript();
+		for (; i < matrikel.length && matrikel[i] == m; i++)
+			t.records.add(new Record(classNames[classId[i]], grade[i]));
+		return t;
+	}
+
+	public java.util.List<Record> records(String className) {
+		int c = classId(className);
+		if (c < 0)
+			return new ArrayList<>();
+		java.util.List<Record> rs = new ArrayList<>(rowsByClass[c].length);
+		for (int row : rowsByClass[c])
+			rs.add(new Record(classNames[c], grade[row]));
+		return rs;
+	}
+
+	// aggregates over all grades; empty if there are none
+
+	public int count() {
+		return grade.length;
+	}
+
+	public OptionalDouble avg() {
+		if (grade.length == 0)
+			return OptionalDouble.empty();
+		long sum = 0;
+		for (short g : grade)
+			sum += g;
+		return OptionalDouble.of((double) sum / grade.length);
+	}
+
+	public OptionalInt min() {
+		if (grade.length == 0)
+			return OptionalInt.empty();
+		int min = Integer.MAX_VALUE;
+		for (short g : grade)
+			min = Math.min(min, g);
+		return OptionalInt.of(min);
+	}
+
+	public OptionalInt max() {
+		if (grade.length == 0)
+			return OptionalInt.empty();
+		int max = Integer.MIN_VALUE;
+		for (short g : grade)
+			max = Math.max(max, g);
+		return OptionalInt.of(max);
+	}
+
+	// aggregates over the grades of one class, visiting only its rows;
+	// like records(), an unknown class has no grades
+
+	private int[] rows(String className) {
+		int c = classId(className);
+		return c < 0 ? new int[0] : rowsByClass[c];
+	}
+
+	public int count(String className) {
+		return rows(className).length;
+	}
+
+	public OptionalDouble avg(String className) {
+		int[] rows = rows(className);
+		if (rows.length == 0)
+			return OptionalDouble.empty();
+		long sum = 0;
+		for (int row : rows)
+			sum += grade[row];
+		return OptionalDouble.of((double) sum / rows.length);
+	}
+
+	public OptionalInt min(String className) {
+		int[] rows = rows(className);
+		if (rows.length == 0)
+			return OptionalInt.empty();
+		int min = Integer.MAX_VALUE;
+		for (int row : rows)
+			min = Math.min(min, grade[row]);
+		return OptionalInt.of(min);
+	}
+
+	public OptionalInt max(String className) {
+		int[] rows = rows(className);
+		if (rows.length == 0)
+			return OptionalInt.empty();
+		int max = Integer.MIN_VALUE;
+		for (int row : rows)
+			max = Math.max(max, grade[row]);
+		return OptionalInt.of(max);
+	}
+
+	// grouped by class, indexed by class id, each in a single pass
+
+	public int[] countByClass() {
+		int[] n = new int[classNames.length];
+		for (short id : classId)
+			n[id]++;
+		return n;
+	}
+
+	public double[] avgByClass() {
+		long[] sum = new long[classNames.length];
+		int[] n = new int[classNames.length];
+		for (int i = 0; i < grade.length; i++) {
+			sum[classId[i]] += grade[i];
+			n[classId[i]]++;
+		}
+		double[] avg = new double[classNames.length];
+		for (int c = 0; c < avg.length; c++)
+			avg[c] = (double) sum[c] / n[c];
+		return avg;
+	}
+
+	public int[] minByClass() {
+		int[] min = new int[classNames.length];
+		Arrays.fill(min, Integer.MAX_VALUE);
+		for (int i = 0; i < grade.length; i++)
+			min[classId[i]] = Math.min(min[classId[i]], grade[i]);
+		return min;
+	}
+
+	public int[] maxByClass() {
+		int[] max = new int[classNames.length];
+		Arrays.fill(max, Integer.MIN_VALUE);
+		for (int i = 0; i < grade.length; i++)
+			max[classId[i]] = Math.max(max[classId[i]], grade[i]);
+		return max;
+	}
+
+	public static void main(String[] args) {
+		Database.getStudents();  // loads the bundled data
+		TranscriptColumns db = Database.columns();
+		int[] counts = db.countByClass(), mins = db.minByClass(), maxs = db.maxByClass();
+		double[] avgs = db.avgByClass();
+		for (int c = 0; c < db.classCount(); c++)
+			System.out.printf("%-16s %d grades, avg %.1f, min %d, max %d%n", db.className(c), counts[c], avgs[c], mins[c], maxs[c]);
+		System.out.println(Database.getToR(0) + ", Programmieren 3 avg " + db.avg("Programmieren 3").getAsDouble()
+				+ ", Mathe 3 avg " + db.avg("Mathe 3"));
+
+		// the same rows as Transcript objects and as columns
+		final int rows = 3_000_000;
+		String[] classes = {"Programmieren 1", "Programmieren 2", "Programmieren 3", "GdI", "GdI 2", "VV"};
+		Random rnd = new Random(42);
+		Builder b = new Builder();
+		Map<Integer, Transcript> tors = new HashMap<>();
+		for (int i = 0; i < rows; i++) {
+			int m = i / 6, g = 100 + rnd.nextInt(400);
+			String name = classes[rnd.nextInt(classes.length)];
+			b.add(m, name, g);
+			tors.computeIfAbsent(m, k -> new Transcript()).records.add(new Record(name, g));
+		}
+		TranscriptColumns cols = b.build();
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			Map<String, long[]> acc = new HashMap<>();
+			for (Transcript t : tors.values())
+				for (Record r : t) {
+					long[] a = acc.computeIfAbsent(r.getName(), k -> new long[2]);
+					a[0] += r.getGrade();
+					a[1]++;
+				}
+			long t1 = System.nanoTime();
+			double[] avg = cols.avgByClass();
+			long t2 = System.nanoTime();
+
+			boolean same = true;
+			for (int c = 0; c < cols.classCount(); c++) {
+				long[] a = acc.get(cols.className(c));
+				same &= Math.abs((double) a[0] / a[1] - avg[c]) < 1e-9;
+			}
+			System.out.printf("avg per class over %,d grades: Transcript objects %d ms, columns %.1f ms (%b)%n",
+					rows, (t1 - t0) / 1_000_000, (t2 - t1) / 1e6, same);
+		}
+	}
+}
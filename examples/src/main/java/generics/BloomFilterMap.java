@@ -0,0 +1,172 @@
+package generics;
+
+/**
+ * Decorator that keeps a Bloom filter over the keys of any Map: if the filter
+ * says a key was never put, get() returns null without touching the map.
+ * A plain (non-counting) filter suffices, since Map has no remove.
+ * Null values are rejected: Map has no containsKey, so a key stored with a
+ * null value would look like a miss. Not thread-safe; wrap it in a
+ * SynchronizedMap, as with MapImpl.
+ */
+public class BloomFilterMap<K, V> implements Map<K, V> {
+	private final Map<K, V> delegate;
+	private final double targetRate;
+	private long[] bits;
+	private int m;       // number of bits
+	private int k;       // number of hash functions
+	private int expected;
+	private int inserted, bitsSet;  // inserted: distinct keys put
+	private long lookups, skipped, falsePositives;
+
+	public BloomFilterMap(Map<K, V> delegate, int expectedKeys, double falsePositiveRate) {
+		this.delegate = delegate;
+		this.targetRate = falsePositiveRate;
+		allocate(expectedKeys);
+	}
+
+	private void allocate(int expectedKeys) {
+		// optimal size for n keys at rate p: m = -n ln p / (ln 2)^2, k = m/n ln 2
+		expected = Math.max(1, expectedKeys);
+		long size = (long) Math.ceil(-expected * Math.log(targetRate) / (Math.log(2) * Math.log(2)));
+		m = (int) Math.min(Math.max(64, size), Integer.MAX_VALUE - 63);
+		k = Math.max(1, (int) Math.round((double) m / expected * Math.log(2)));
+		bits = new long[(m + 63) >>> 6];
+		inserted = bitsSet = 0;
+	}
+
+	// double hashing: the i-th index is h1 + i*h2 (Kirsch & Mitzenmacher)
+	private static long spread(Object key) {
+		long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 29);
+	}
+
+	private void add(K key) {
+		long h = spread(key);
+		int h1 = (int) h, h2 = (int) (h >>> 32) | 1;
+		for (int i = 0; i < k; i++) {
+			int bit = Math.floorMod(h1 + i * h2, m);
+			long mask = 1L << bit;
+			if ((bits[bit >>> 6] & mask) == 0) {
+				bits[bit >>> 6] |= mask;
+				bitsSet++;
+			}
+		}
+	}
+
+	private boolean mightContain(K key) {
+		long h = spread(key);
+		int h1 = (int) h, h2 = (int) (h >>> 32) | 1;
+		for (int i = 0; i < k; i++) {
+			int bit = Math.floorMod(h1 + i * h2, m);
+			if ((bits[bit >>> 6] & (1L << bit)) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void put(K key, V value) {
+		if (value == null)
+			throw new NullPointerException("BloomFilterMap does not store null values");
+		// a filter miss proves the key is new; only a filter hit needs the map to tell
+		if (!mightContain(key) || delegate.get(key) == null)
+			inserted++;
+		add(key);
+		delegate.put(key, value);
+	}
+
+	@Override
+	public V get(K key) {
+		lookups++;
+		if (!mightContain(key)) {
+			skipped++;
+			return null;
+		}
+		V v = delegate.get(key);
+		if (v == null)
+			falsePositives++;
+		return v;
+	}
+
+	/**
+	 * Expected false positive rate given the current fill, (bits set / m)^k.
+	 */
+	public double falsePositiveRate() {
+		return Math.pow((double) bitsSet / m, k);
+	}
+
+	/**
+	 * Share of lookups for absent keys that the filter let through so far,
+	 * i.e. false positives / (false positives + lookups it skipped).
+	 */
+	public double observedFalsePositiveRate() {
+		long negatives = skipped + falsePositives;
+		return negatives == 0 ? 0 : (double) falsePositives / negatives;
+	}
+
+	public long memoryBytes() {
+		return (long) bits.length * Long.BYTES;
+	}
+
+	/**
+	 * True once the filter holds more keys than it was sized for, or the
+	 * estimated rate has more than doubled the target.
+	 */
+	public boolean isDegraded() {
+		return inserted > expected || falsePositiveRate() > 2 * targetRate;
+	}
+
+	/**
+	 * Re-sizes the filter for expectedKeys and fills it from keys, which must
+	 * contain every key in the map once (Map cannot enumerate them itself).
+	 */
+	public void rebuild(int expectedKeys, Iterable<? extends K> keys) {
+		allocate(expectedKeys);
+		for (K key : keys) {
+			add(key);
+			inserted++;
+		}
+		lookups = skipped = falsePositives = 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("bloom filter: %d bits (%d bytes), %d hashes, %d keys, fpp %.4f (observed %.4f), %d of %d lookups skipped",
+				m, memoryBytes(), k, inserted, falsePositiveRate(), observedFalsePositiveRate(), skipped, lookups);
+	}
+
+	public static void main(String[] args) {
+		BloomFilterMap<String, Integer> map = new BloomFilterMap<>(new MapImpl<>(), 1000, 0.01);
+		map.put("Hans", 14235);
+		System.out.println("Hans: " + map.get("Hans"));
+		System.out.println("Peter: " + map.get("Peter"));
+
+		// mostly misses against a long chain
+		MapImpl<String, Integer> plain = new MapImpl<>();
+		java.util.List<String> keys = new java.util.ArrayList<>(java.util.List.of("Hans"));
+		for (int i = 0; i < 1000; i++) {
+			map.put("student" + i, i);
+			plain.put("student" + i, i);
+			keys.add("student" + i);
+		}
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			for (int i = 0; i < 100_000; i++)
+				plain.get("guest" + i);
+			long t1 = System.nanoTime();
+			for (int i = 0; i < 100_000; i++)
+				map.get("guest" + i);
+			long t2 = System.nanoTime();
+			System.out.printf("100,000 misses: plain %d ms, filtered %d ms%n", (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000);
+		}
+		System.out.println(map);
+		System.out.println("degraded: " + map.isDegraded());
+
+		// one key too many: size it for growth
+		if (map.isDegraded()) {
+			map.rebuild(2 * keys.size(), keys);
+			System.out.println("rebuilt " + map);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package generics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts values to bytes and back, e.g. to store them outside the heap.
+ */
+public interface Codec<T> {
+	byte[] encode(T value);
+
+	// buf holds exactly the bytes produced by encode(), starting at position 0
+	T decode(ByteBuffer buf);
+
+	Codec<String> UTF8 = new Codec<String>() {
+		@Override
+		public byte[] encode(String value) {
+			return value.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String decode(ByteBuffer buf) {
+			return StandardCharsets.UTF_8.decode(buf).toString();
+		}
+	};
+
+	Codec<Integer> INT = new Codec<Integer>() {
+		@Override
+		public byte[] encode(Integer value) {
+			return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+		}
+
+		@Override
+		public Integer decode(ByteBuffer buf) {
+			return buf.getInt(0);
+		}
+	};
+}
@@ -0,0 +1,240 @@
+package generics;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Hash map that is safe for concurrent use: reads never lock, writes only lock
+ * the segment (stripe) the key hashes to.
+ * Keys and values must not be null, as get() uses null to signal "absent".
+ */
+public class ConcurrentMapImpl<K, V> implements Map<K, V> {
+	class Entry {
+		final K key;
+		final int hash;
+		volatile V value;
+		volatile Entry next;
+
+		Entry(K key, int hash, V value, Entry next) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	class Segment extends ReentrantLock {
+		private static final long serialVersionUID = 1L;
+
+		volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(16);
+		volatile int count;
+
+		Entry find(AtomicReferenceArray<Entry> tab, K key, int hash) {
+			Entry it = tab.get(hash & (tab.length() - 1));
+			while (it != null) {
+				if (it.hash == hash && it.key.equals(key))
+					return it;
+				it = it.next;
+			}
+			return null;
+		}
+
+		// only call while holding the lock
+		void insert(K key, int hash, V value) {
+			AtomicReferenceArray<Entry> tab = table;
+			if (count + 1 > tab.length() * 3 / 4)
+				tab = resize(tab);
+			int i = hash & (tab.length() - 1);
+			tab.set(i, new Entry(key, hash, value, tab.get(i)));
+			count = count + 1;
+		}
+
+		// only call while holding the lock
+		void unlink(Entry e) {
+			AtomicReferenceArray<Entry> tab = table;
+			int i = e.hash & (tab.length() - 1);
+			Entry it = tab.get(i), prev = null;
+			while (it != e) {
+				prev = it;
+				it = it.next;
+			}
+			if (prev == null)
+				tab.set(i, e.next);
+			else
+				prev.next = e.next;
+			count = count - 1;
+		}
+
+		// copy into fresh entries, so that readers still walking the old table
+		// see consistent chains; the new table is published by the volatile write
+		private AtomicReferenceArray<Entry> resize(AtomicReferenceArray<Entry> old) {
+			AtomicReferenceArray<Entry> tab = new AtomicReferenceArray<>(old.length() * 2);
+			for (int i = 0; i < old.length(); i++) {
+				for (Entry it = old.get(i); it != null; it = it.next) {
+					int j = it.hash & (tab.length() - 1);
+					tab.set(j, new Entry(it.key, it.hash, it.value, tab.get(j)));
+				}
+			}
+			table = tab;
+			return tab;
+		}
+	}
+
+	private final Segment[] segments;
+	private final int segmentShift;
+
+	public ConcurrentMapImpl() {
+		this(16);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ConcurrentMapImpl(int concurrencyLevel) {
+		int n = 1, bits = 0;
+		while (n < concurrencyLevel) {
+			n <<= 1;
+			bits++;
+		}
+		segmentShift = 32 - bits;
+		segments = (Segment[]) Array.newInstance(Segment.class, n);
+		for (int i = 0; i < n; i++)
+			segments[i] = new Segment();
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private Segment segmentFor(int hash) {
+		// mix again and use the high bits, the low bits select the bin within the segment
+		return segments.length == 1 ? segments[0] : segments[(hash * 0x9E3779B9) >>> segmentShift];
+	}
+
+	@Override
+	public V get(K key) {
+		int h = hash(key);
+		Segment s = segmentFor(h);
+		Entry e = s.find(s.table, key, h);
+		return e == null ? null : e.value;
+	}
+
+	@Override
+	public void put(K key, V value) {
+		if (value == null)
+			throw new NullPointerException();
+		int h = hash(key);
+		Segment s = segmentFor(h);
+		s.lock();
+		try {
+			Entry e = s.find(s.table, key, h);
+			if (e != null)
+				e.value = value;
+			else
+				s.insert(key, h, value);
+		} finally {
+			s.unlock();
+		}
+	}
+
+	/**
+	 * Associates value with key unless a mapping exists; returns the previous
+	 * value, or null if value was inserted.
+	 */
+	public V putIfAbsent(K key, V value) {
+		if (value == null)
+			throw new NullPointerException();
+		int h = hash(key);
+		Segment s = segmentFor(h);
+		s.lock();
+		try {
+			Entry e = s.find(s.table, key, h);
+			if (e != null)
+				return e.value;
+			s.insert(key, h, value);
+			return null;
+		} finally {
+			s.unlock();
+		}
+	}
+
+	/**
+	 * Returns the value for key, computing and inserting it if absent.
+	 * The function is invoked at most once per missing key.
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> f) {
+		V v = get(key);
+		if (v != null)
+			return v;
+
+		int h = hash(key);
+		Segment s = segmentFor(h);
+		s.lock();
+		try {
+			Entry e = s.find(s.table, key, h);
+			if (e != null)
+				return e.value;
+			v = f.apply(key);
+			if (v != null)
+				s.insert(key, h, v);
+			return v;
+		} finally {
+			s.unlock();
+		}
+	}
+
+	/**
+	 * Inserts value if key is absent, otherwise replaces the current value by
+	 * f(current, value); a null result removes the mapping.
+	 */
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> f) {
+		if (value == null)
+			throw new NullPointerException();
+		int h = hash(key);
+		Segment s = segmentFor(h);
+		s.lock();
+		try {
+			Entry e = s.find(s.table, key, h);
+			if (e == null) {
+				s.insert(key, h, value);
+				return value;
+			}
+			V v = f.apply(e.value, value);
+			if (v == null)
+				s.unlink(e);
+			else
+				e.value = v;
+			return v;
+		} finally {
+			s.unlock();
+		}
+	}
+
+	public int size() {
+		int n = 0;
+		for (Segment s : segments)
+			n += s.count;
+		return n;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		ConcurrentMapImpl<String, Integer> map = new ConcurrentMapImpl<>();
+		map.put("Hans", 14235);
+		System.out.println("Hans: " + map.get("Hans"));
+		System.out.println("Peter: " + map.get("Peter"));
+
+		map.merge("Hans", 1, Integer::sum);
+		map.computeIfAbsent("Peter", k -> k.length());
+		System.out.println("Hans: " + map.get("Hans") + ", Peter: " + map.get("Peter"));
+
+		// read-heavy workload (95% get), compared to a single global lock
+		int cores = Runtime.getRuntime().availableProcessors();
+		for (int t = 1; t <= cores; t *= 2) {
+			System.out.printf("%2d threads: synchronized %,12d ops/s, concurrent %,12d ops/s%n", t,
+					MapBenchmark.opsPerSecond(new SynchronizedMap<>(new MapImpl<>()), t, 256, 0.95),
+					MapBenchmark.opsPerSecond(new ConcurrentMapImpl<>(), t, 256, 0.95));
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package generics;
+
+import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sorted map for concurrent use, built as a lock-free skip list: all links are
+ * set by compare-and-swap, so no thread ever blocks another.
+ * Iteration is weakly consistent: it never fails and returns the keys in order,
+ * but may or may not reflect puts that happen while iterating.
+ * There is no removal, as generics.Map does not define one.
+ */
+public class ConcurrentSkipListMapImpl<K extends Comparable<K>, V> implements Map<K, V>, Iterable<java.util.Map.Entry<K, V>> {
+	private static final int MAX_LEVEL = 32;
+
+	class Node {
+		final K key;
+		volatile V value;
+		final AtomicReferenceArray<Node> next;
+
+		Node(K key, V value, int height) {
+			this.key = key;
+			this.value = value;
+			this.next = new AtomicReferenceArray<>(height);
+		}
+	}
+
+	// sentinel; its key is null and smaller than every other key
+	private final Node head = new Node(null, null, MAX_LEVEL);
+
+	private static int randomHeight() {
+		// geometric distribution with p = 1/2
+		int h = Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1))) + 1;
+		return Math.min(h, MAX_LEVEL);
+	}
+
+	// fills preds/succs with the nodes around key at every level; returns the
+	// node with that key if present
+	private Node find(K key, Node[] preds, Node[] succs) {
+		Node pred = head;
+		Node found = null;
+		for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+			Node curr = pred.next.get(level);
+			while (curr != null) {
+				int c = key.compareTo(curr.key);
+				if (c == 0)
+					found = curr;
+				if (c <= 0)
+					break;
+				pred = curr;
+				curr = pred.next.get(level);
+			}
+			if (preds != null) {
+				preds[level] = pred;
+				succs[level] = curr;
+			}
+		}
+		return found;
+	}
+
+	// first node with key >= from (from == null: first node)
+	private Node ceiling(K from) {
+		if (from == null)
+			return head.next.get(0);
+
+		Node pred = head;
+		for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+			Node curr = pred.next.get(level);
+			while (curr != null && curr.key.compareTo(from) < 0) {
+				pred = curr;
+				curr = pred.next.get(level);
+			}
+		}
+		return pred.next.get(0);
+	}
+
+	@Override
+	public V get(K key) {
+		Node n = find(key, null, null);
+		return n == null ? null : n.value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void put(K key, V value) {
+		Node[] preds = (Node[]) Array.newInstance(Node.class, MAX_LEVEL);
+		Node[] succs = (Node[]) Array.newInstance(Node.class, MAX_LEVEL);
+
+		while (true) {
+			Node found = find(key, preds, succs);
+			if (found != null) {
+				found.value = value;
+				return;
+			}
+
+			int height = randomHeight();
+			Node n = new Node(key, value, height);
+			for (int level = 0; level < height; level++)
+				n.next.set(level, succs[level]);
+
+			// linking the bottom level is the linearization point
+			if (!preds[0].next.compareAndSet(0, succs[0], n))
+				continue;
+
+			// index levels are only shortcuts; retry each until it sticks
+			for (int level = 1; level < height; level++) {
+				while (!preds[level].next.compareAndSet(level, succs[level], n)) {
+					find(key, preds, succs);
+					n.next.set(level, succs[level]);
+				}
+			}
+			return;
+		}
+	}
+
+	/**
+	 * Ascending, weakly consistent iteration over all entries.
+	 */
+	@Override
+	public Iterator<java.util.Map.Entry<K, V>> iterator() {
+		return range(null, null).iterator();
+	}
+
+	/**
+	 * Weakly consistent view of all entries with from <= key < to; null bounds
+	 * are open.
+	 */
+	public Iterable<java.util.Map.Entry<K, V>> range(K from, K to) {
+		return () -> new Iterator<java.util.Map.Entry<K, V>>() {
+			Node it = ceiling(from);
+
+			@Override
+			public boolean hasNext() {
+				return it != null && (to == null || it.key.compareTo(to) < 0);
+			}
+
+			@Override
+			public java.util.Map.Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				java.util.Map.Entry<K, V> e = new AbstractMap.SimpleImmutableEntry<>(it.key, it.value);
+				it = it.next.get(0);
+				return e;
+			}
+		};
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		ConcurrentSkipListMapImpl<String, Integer> map = new ConcurrentSkipListMapImpl<>();
+		map.put("Hans", 14235);
+		map.put("Anna", 11111);
+		map.put("Peter", 23456);
+		map.put("Zora", 34567);
+
+		for (java.util.Map.Entry<String, Integer> e : map)
+			System.out.println(e);
+		for (java.util.Map.Entry<String, Integer> e : map.range("B", "Q"))
+			System.out.println("in [B, Q): " + e);
+
+		// 80% get, 20% put, compared to a single global lock around SortedMapImpl
+		for (int t = 1; t <= 32; t *= 2) {
+			System.out.printf("%2d threads: synchronized %,12d ops/s, skip list %,12d ops/s%n", t,
+					MapBenchmark.opsPerSecond(new SynchronizedMap<>(new SortedMapImpl<Integer, Integer>()), t, 4096, 0.8),
+					MapBenchmark.opsPerSecond(new ConcurrentSkipListMapImpl<>(), t, 4096, 0.8));
+		}
+	}
+}
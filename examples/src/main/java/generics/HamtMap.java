@@ -0,0 +1,303 @@
+package generics;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hash array mapped trie: a hash map built from immutable 32-way nodes.
+ * An update copies only the path to the changed leaf (O(log32 n) nodes) and
+ * shares everything else with the previous version, so old versions stay
+ * valid and a snapshot() is just a reference copy.
+ * put() swaps in the new version atomically; with() returns it instead.
+ * Keys and values must not be null.
+ */
+public class HamtMap<K, V> implements Map<K, V> {
+	private static final Object NOT_FOUND = new Object();
+
+	private abstract static class Node {
+		abstract Object find(int shift, int hash, Object key);
+
+		// edit != null marks nodes owned by a Transient, which may be updated in place
+		abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, boolean[] added);
+	}
+
+	private static final class BitmapNode extends Node {
+		final Object edit;
+		int bitmap;
+		// pairs of (key, value), or (null, child node)
+		Object[] array;
+
+		BitmapNode(Object edit, int bitmap, Object[] array) {
+			this.edit = edit;
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int bit = 1 << ((hash >>> shift) & 31);
+			if ((bitmap & bit) == 0)
+				return NOT_FOUND;
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object k = array[i], v = array[i + 1];
+			if (k == null)
+				return ((Node) v).find(shift + 5, hash, key);
+			return key.equals(k) ? v : NOT_FOUND;
+		}
+
+		@Override
+		Node assoc(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+			int bit = 1 << ((hash >>> shift) & 31);
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+
+			if ((bitmap & bit) == 0) {
+				added[0] = true;
+				Object[] a = new Object[array.length + 2];
+				System.arraycopy(array, 0, a, 0, i);
+				a[i] = key;
+				a[i + 1] = value;
+				System.arraycopy(array, i, a, i + 2, array.length - i);
+				if (editable(edit)) {
+					bitmap |= bit;
+					array = a;
+					return this;
+				}
+				return new BitmapNode(edit, bitmap | bit, a);
+			}
+
+			Object k = array[i], v = array[i + 1];
+			if (k == null) {
+				Node n = ((Node) v).assoc(edit, shift + 5, hash, key, value, added);
+				return n == v ? this : set(edit, i, null, n);
+			}
+			if (key.equals(k))
+				return v == value ? this : set(edit, i, k, value);
+
+			// two different keys share this slot: push both one level down
+			added[0] = true;
+			return set(edit, i, null, pair(edit, shift + 5, k, v, hash, key, value));
+		}
+
+		private boolean editable(Object edit) {
+			return edit != null && this.edit == edit;
+		}
+
+		private Node set(Object edit, int i, Object k, Object v) {
+			if (editable(edit)) {
+				array[i] = k;
+				array[i + 1] = v;
+				return this;
+			}
+			Object[] a = array.clone();
+			a[i] = k;
+			a[i + 1] = v;
+			return new BitmapNode(edit, bitmap, a);
+		}
+	}
+
+	// keys whose full 32 bit hashes are equal
+	private static final class CollisionNode extends Node {
+		final int hash;
+		final Object[] array;
+
+		CollisionNode(int hash, Object[] array) {
+			this.hash = hash;
+			this.array = array;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i]))
+					return array[i + 1];
+			}
+			return NOT_FOUND;
+		}
+
+		@Override
+		Node assoc(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+			if (hash != this.hash) {
+				Node n = new BitmapNode(edit, 1 << ((this.hash >>> shift) & 31), new Object[] {null, this});
+				return n.assoc(edit, shift, hash, key, value, added);
+			}
+
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i])) {
+					if (array[i + 1] == value)
+						return this;
+					Object[] a = array.clone();
+					a[i + 1] = value;
+					return new CollisionNode(hash, a);
+				}
+			}
+
+			added[0] = true;
+			Object[] a = new Object[array.length + 2];
+			System.arraycopy(array, 0, a, 0, array.length);
+			a[array.length] = key;
+			a[array.length + 1] = value;
+			return new CollisionNode(hash, a);
+		}
+	}
+
+	private static Node pair(Object edit, int shift, Object k1, Object v1, int h2, Object k2, Object v2) {
+		int h1 = hash(k1);
+		if (h1 == h2)
+			return new CollisionNode(h1, new Object[] {k1, v1, k2, v2});
+		boolean[] added = new boolean[1];
+		return new BitmapNode(edit, 0, new Object[0])
+				.assoc(edit, shift, h1, k1, v1, added)
+				.assoc(edit, shift, h2, k2, v2, added);
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static final Node EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+	// one immutable version of the map
+	private static final class Version {
+		final Node root;
+		final int size;
+
+		Version(Node root, int size) {
+			this.root = root;
+			this.size = size;
+		}
+
+		Version with(Object edit, Object key, Object value) {
+			if (key == null || value == null)
+				throw new NullPointerException();
+			boolean[] added = new boolean[1];
+			Node n = root.assoc(edit, 0, hash(key), key, value, added);
+			if (n == root && !added[0])
+				return this;
+			return new Version(n, added[0] ? size + 1 : size);
+		}
+
+		Object get(Object key) {
+			Object v = root.find(0, hash(key), key);
+			return v == NOT_FOUND ? null : v;
+		}
+	}
+
+	private final AtomicReference<Version> current;
+
+	public HamtMap() {
+		this(new Version(EMPTY, 0));
+	}
+
+	private HamtMap(Version v) {
+		current = new AtomicReference<>(v);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(K key) {
+		return (V) current.get().get(key);
+	}
+
+	@Override
+	public void put(K key, V value) {
+		// lock-free: retry if another writer published a version in the meantime
+		Version v, w;
+		do {
+			v = current.get();
+			w = v.with(null, key, value);
+		} while (!current.compareAndSet(v, w));
+	}
+
+	/**
+	 * Persistent update: returns a new map with key mapped to value; this map
+	 * is left untouched.
+	 */
+	public HamtMap<K, V> with(K key, V value) {
+		return new HamtMap<>(current.get().with(null, key, value));
+	}
+
+	/**
+	 * O(1) consistent snapshot, unaffected by later puts to this map (and vice
+	 * versa).
+	 */
+	public HamtMap<K, V> snapshot() {
+		return new HamtMap<>(current.get());
+	}
+
+	public int size() {
+		return current.get().size;
+	}
+
+	/**
+	 * Mutable copy for bulk loading, updates nodes in place instead of copying
+	 * paths; call persistent() when done.
+	 */
+	public Transient<K, V> asTransient() {
+		return new Transient<>(current.get());
+	}
+
+	public static class Transient<K, V> implements Map<K, V> {
+		private Object edit = new Object();
+		private Version version;
+
+		private Transient(Version version) {
+			this.version = version;
+		}
+
+		private void ensureEditable() {
+			if (edit == null)
+				throw new IllegalStateException("transient used after persistent()");
+		}
+
+		@Override
+		public void put(K key, V value) {
+			ensureEditable();
+			version = version.with(edit, key, value);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(K key) {
+			ensureEditable();
+			return (V) version.get(key);
+		}
+
+		public HamtMap<K, V> persistent() {
+			ensureEditable();
+			// without the edit token, nobody can update the nodes in place any more
+			edit = null;
+			return new HamtMap<>(version);
+		}
+	}
+
+	public static void main(String[] args) {
+		HamtMap<String, Integer> map = new HamtMap<>();
+		map.put("Hans", 14235);
+
+		HamtMap<String, Integer> snap = map.snapshot();
+		map.put("Peter", 23456);
+		HamtMap<String, Integer> next = map.with("Hans", 1);
+
+		System.out.println("map:      Hans=" + map.get("Hans") + " Peter=" + map.get("Peter"));
+		System.out.println("snapshot: Hans=" + snap.get("Hans") + " Peter=" + snap.get("Peter"));
+		System.out.println("next:     Hans=" + next.get("Hans") + " Peter=" + next.get("Peter"));
+
+		final int n = 1_000_000;
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			HamtMap<Integer, Integer> p = new HamtMap<>();
+			for (int i = 0; i < n; i++)
+				p.put(i, i);
+
+			long t1 = System.nanoTime();
+			HamtMap.Transient<Integer, Integer> t = new HamtMap<Integer, Integer>().asTransient();
+			for (int i = 0; i < n; i++)
+				t.put(i, i);
+			HamtMap<Integer, Integer> q = t.persistent();
+
+			long t2 = System.nanoTime();
+			System.out.printf("%,d puts: persistent %d ms, transient %d ms (%d/%d entries)%n",
+					n, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, p.size(), q.size());
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package generics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Crude throughput measurement for Map implementations: a number of threads
+ * hammer the map with a mix of get and put for a fixed amount of time.
+ */
+class MapBenchmark {
+	static long opsPerSecond(Map<Integer, Integer> map, int threads, int keys, double readRatio)
+			throws InterruptedException {
+		// fill in random order, so unbalanced trees do not degenerate to lists
+		List<Integer> fill = new ArrayList<>();
+		for (int k = 0; k < keys; k++)
+			fill.add(k);
+		Collections.shuffle(fill);
+		for (int k : fill)
+			map.put(k, k);
+
+		final long millis = 500;
+		AtomicBoolean running = new AtomicBoolean(true);
+		LongAdder ops = new LongAdder();
+
+		Thread[] ts = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			ts[i] = new Thread(() -> {
+				ThreadLocalRandom rnd = ThreadLocalRandom.current();
+				long n = 0;
+				while (running.get()) {
+					int k = rnd.nextInt(keys);
+					if (rnd.nextDouble() < readRatio)
+						map.get(k);
+					else
+						map.put(k, k + 1);
+					n++;
+				}
+				ops.add(n);
+			});
+			ts[i].start();
+		}
+
+		Thread.sleep(millis);
+		running.set(false);
+		for (Thread t : ts)
+			t.join();
+
+		return ops.sum() * 1000 / millis;
+	}
+}
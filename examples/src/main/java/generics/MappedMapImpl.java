@@ -0,0 +1,293 @@
+package generics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Persistent map that lives in two memory-mapped files rather than on the heap:
+ * an append-only log of (key, value) records, and an open-addressing hash index
+ * that points to the latest record for each key.
+ * Reopening only maps the files, nothing is deserialized until get() is called.
+ * Not safe for concurrent use, just like MapImpl.
+ */
+public class MappedMapImpl<K, V> implements Map<K, V>, Closeable {
+	private static final int CHUNK = 1 << 30;      // log is mapped in chunks of 1 GiB
+	private static final int MAX_CAPACITY = 1 << 27;
+	private static final int INDEX_HEADER = 8;     // capacity, count
+	private static final int SLOT = 12;            // log offset, key hash
+	private static final int LOG_HEADER = 8;       // end of log; offset 0 marks a free slot
+	private static final int RECORD_HEADER = 8;    // key length, value length
+
+	private final Path indexPath, logPath;
+	private final Codec<K> keys;
+	private final Codec<V> values;
+
+	private FileChannel indexChannel;
+	private final FileChannel logChannel;
+	private MappedByteBuffer index;
+	private final java.util.List<MappedByteBuffer> log = new ArrayList<>();
+	private int capacity, count;
+	private long end;
+
+	public MappedMapImpl(Path base, Codec<K> keys, Codec<V> values) throws IOException {
+		this.indexPath = base.resolveSibling(base.getFileName() + ".idx");
+		this.logPath = base.resolveSibling(base.getFileName() + ".log");
+		this.keys = keys;
+		this.values = values;
+
+		boolean fresh = !Files.exists(logPath);
+		if (!fresh && !Files.exists(indexPath))
+			throw new IOException("index missing: " + indexPath);
+
+		logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (fresh) {
+			end = LOG_HEADER;
+			mapLog(end).putLong(0, end);
+			indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			index = mapIndex(indexChannel, 1024);
+		} else {
+			end = mapLog(LOG_HEADER).getLong(0);
+			mapLog(end);
+			indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+			capacity = index.getInt(0);
+			count = index.getInt(4);
+		}
+	}
+
+	private MappedByteBuffer mapIndex(FileChannel ch, int capacity) throws IOException {
+		MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * SLOT);
+		buf.putInt(0, capacity);
+		buf.putInt(4, count);
+		this.capacity = capacity;
+		return buf;
+	}
+
+	// makes sure the log is mapped up to limit; returns the chunk containing limit-1
+	private MappedByteBuffer mapLog(long limit) throws IOException {
+		int last = (int) ((limit - 1) / CHUNK);
+		for (int i = 0; i <= last; i++) {
+			long required = i < last ? CHUNK : limit - (long) i * CHUNK;
+			MappedByteBuffer buf = i < log.size() ? log.get(i) : null;
+			if (buf != null && buf.capacity() >= required)
+				continue;
+
+			// grow geometrically, so that appends do not remap every time
+			long size = Math.max(required, buf == null ? 1 << 16 : 2L * buf.capacity());
+			size = Math.min(size, CHUNK);
+			buf = logChannel.map(FileChannel.MapMode.READ_WRITE, (long) i * CHUNK, size);
+			if (i < log.size())
+				log.set(i, buf);
+			else
+				log.add(buf);
+		}
+		return log.get(last);
+	}
+
+	private static int hash(byte[] key) {
+		int h = Arrays.hashCode(key) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int slot(int i) {
+		return INDEX_HEADER + i * SLOT;
+	}
+
+	private boolean keyEquals(long offset, byte[] key) {
+		MappedByteBuffer buf = log.get((int) (offset / CHUNK));
+		int pos = (int) (offset % CHUNK);
+		if (buf.getInt(pos) != key.length)
+			return false;
+		pos += RECORD_HEADER;
+		for (int i = 0; i < key.length; i++) {
+			if (buf.get(pos + i) != key[i])
+				return false;
+		}
+		return true;
+	}
+
+	// linear probing; returns the slot holding key, or the free slot to put it
+	private int probe(byte[] key, int hash) {
+		int mask = capacity - 1;
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			long offset = index.getLong(slot(i));
+			if (offset == 0)
+				return i;
+			if (index.getInt(slot(i) + 8) == hash && keyEquals(offset, key))
+				return i;
+		}
+	}
+
+	private long append(byte[] key, byte[] value) throws IOException {
+		int len = RECORD_HEADER + key.length + value.length;
+		if (len > CHUNK)
+			throw new IllegalArgumentException("record too large: " + len + " bytes");
+
+		// records never straddle two chunks
+		long offset = end;
+		if (offset % CHUNK + len > CHUNK)
+			offset = (offset / CHUNK + 1) * CHUNK;
+
+		MappedByteBuffer buf = mapLog(offset + len);
+		int pos = (int) (offset % CHUNK);
+		buf.putInt(pos, key.length);
+		buf.putInt(pos + 4, value.length);
+		buf.position(pos + RECORD_HEADER);
+		buf.put(key);
+		buf.put(value);
+
+		end = offset + len;
+		log.get(0).putLong(0, end);
+		return offset;
+	}
+
+	/**
+	 * Rehashes into a new file using the stored hashes, then renames it over
+	 * the index. The old mapping is dropped and its channel closed first, but
+	 * Java cannot unmap a buffer explicitly: the old pages stay mapped until
+	 * the buffer is garbage collected. POSIX allows renaming over a mapped
+	 * file (the new mapping follows its file, the old one keeps the unlinked
+	 * one); Windows refuses to replace a mapped file, so grow() may fail there.
+	 */
+	private void grow() throws IOException {
+		if (capacity == MAX_CAPACITY)
+			throw new IllegalStateException("index full");
+
+		Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+		FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		MappedByteBuffer old = index;
+		int oldCapacity = capacity;
+		index = mapIndex(ch, 2 * capacity);
+
+		int mask = capacity - 1;
+		for (int i = 0; i < oldCapacity; i++) {
+			long offset = old.getLong(INDEX_HEADER + i * SLOT);
+			if (offset == 0)
+				continue;
+			int hash = old.getInt(INDEX_HEADER + i * SLOT + 8);
+			int j = hash & mask;
+			while (index.getLong(slot(j)) != 0)
+				j = (j + 1) & mask;
+			index.putLong(slot(j), offset);
+			index.putInt(slot(j) + 8, hash);
+		}
+
+		// the new index must be on disk before it replaces the old one
+		index.force();
+		ch.force(true);
+		old = null;
+		indexChannel.close();
+		Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		indexChannel = ch;
+	}
+
+	@Override
+	public void put(K key, V value) {
+		Objects.requireNonNull(key, "MappedMapImpl does not store null keys");
+		Objects.requireNonNull(value, "MappedMapImpl does not store null values");
+		byte[] k = keys.encode(key);
+		byte[] v = values.encode(value);
+		int h = hash(k);
+		try {
+			if (count + 1 > capacity * 3 / 4)
+				grow();
+
+			int i = probe(k, h);
+			boolean added = index.getLong(slot(i)) == 0;
+
+			// append first: if it fails, the index is untouched.
+			// The old record stays in the log, only the index moves on
+			long offset = append(k, v);
+			index.putInt(slot(i) + 8, h);
+			index.putLong(slot(i), offset);
+			if (added)
+				index.putInt(4, ++count);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public V get(K key) {
+		byte[] k = keys.encode(key);
+		long offset = index.getLong(slot(probe(k, hash(k))));
+		if (offset == 0)
+			return null;
+
+		MappedByteBuffer buf = log.get((int) (offset / CHUNK));
+		int pos = (int) (offset % CHUNK);
+		int klen = buf.getInt(pos), vlen = buf.getInt(pos + 4);
+		ByteBuffer v = buf.duplicate();
+		v.position(pos + RECORD_HEADER + klen).limit(pos + RECORD_HEADER + klen + vlen);
+		return values.decode(v.slice());
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Bytes mapped outside the heap (index plus log).
+	 */
+	public long offHeapBytes() {
+		long n = index.capacity();
+		for (MappedByteBuffer buf : log)
+			n += buf.capacity();
+		return n;
+	}
+
+	/**
+	 * Bytes of the log actually in use, including overwritten records.
+	 */
+	public long logBytes() {
+		return end;
+	}
+
+	public void flush() {
+		index.force();
+		for (MappedByteBuffer buf : log)
+			buf.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		indexChannel.close();
+		logChannel.close();
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path base = Files.createTempDirectory("mapped").resolve("students");
+
+		final int n = 1_000_000;
+		try (MappedMapImpl<String, Integer> map = new MappedMapImpl<>(base, Codec.UTF8, Codec.INT)) {
+			map.put("Hans", 14235);
+			for (int i = 0; i < n; i++)
+				map.put("student" + i, i);
+			System.out.println("Hans: " + map.get("Hans"));
+			System.out.println("Peter: " + map.get("Peter"));
+		}
+
+		long t0 = System.nanoTime();
+		try (MappedMapImpl<String, Integer> map = new MappedMapImpl<>(base, Codec.UTF8, Codec.INT)) {
+			long t1 = System.nanoTime();
+			System.out.printf("reopened %,d entries in %.2f ms%n", map.size(), (t1 - t0) / 1e6);
+			System.out.println("student4711: " + map.get("student4711"));
+			System.out.printf("off-heap: %,d bytes mapped, %,d bytes of log in use%n", map.offHeapBytes(), map.logBytes());
+		}
+
+		for (String ext : new String[] {".idx", ".log"})
+			Files.delete(base.resolveSibling(base.getFileName() + ext));
+		Files.delete(base.getParent());
+	}
+}
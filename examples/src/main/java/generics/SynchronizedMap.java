@@ -0,0 +1,23 @@
+package generics;
+
+/**
+ * Guards any Map with a single lock; this is the baseline the concurrent
+ * implementations are measured against.
+ */
+public class SynchronizedMap<K, V> implements Map<K, V> {
+	private final Map<K, V> delegate;
+
+	public SynchronizedMap(Map<K, V> delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public synchronized void put(K key, V value) {
+		delegate.put(key, value);
+	}
+
+	@Override
+	public synchronized V get(K key) {
+		return delegate.get(key);
+	}
+}
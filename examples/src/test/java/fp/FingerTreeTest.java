@@ -0,0 +1,56 @@
+package fp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerTreeTest {
+	static FingerTree<Integer> range(int from, int to) {
+		FingerTree<Integer> t = FingerTree.empty();
+		for (int i = from; i < to; i++)
+			t = t.snoc(i);
+		return t;
+	}
+
+	static void assertRange(int from, int to, FingerTree<Integer> t) {
+		assertEquals(to - from, t.size());
+		for (int i = from; i < to; i++)
+			assertEquals(i, (int) t.get(i - from));
+	}
+
+	@Test
+	void testSplitAtEveryIndex() {
+		final int n = 300;
+		FingerTree<Integer> t = range(0, n);
+		for (int k = -1; k <= n + 1; k++) {
+			FingerTree.Split<Integer> s = t.splitAt(k);
+			int cut = Math.max(0, Math.min(k, n));
+			assertRange(0, cut, s.left);
+			assertRange(cut, n, s.right);
+			assertRange(0, n, s.left.concat(s.right));
+		}
+	}
+
+	@Test
+	void testConcatDeepTrees() {
+		// cons and snoc build different shapes; concatenation must not care
+		FingerTree<Integer> a = range(0, 1000);
+		FingerTree<Integer> b = FingerTree.empty();
+		for (int i = 1999; i >= 1000; i--)
+			b = b.cons(i);
+		FingerTree<Integer> ab = a.concat(b);
+		assertRange(0, 2000, ab);
+		assertEquals(0, (int) ab.head());
+		assertEquals(1999, (int) ab.last());
+		assertRange(1, 1999, ab.tail().init());
+
+		assertTrue(FingerTree.<Integer>empty().concat(FingerTree.empty()).isEmpty());
+		assertRange(0, 1000, a.concat(FingerTree.empty()));
+		assertRange(0, 1000, FingerTree.<Integer>empty().concat(a));
+
+		// the operands are unchanged
+		assertRange(0, 1000, a);
+		assertRange(1000, 2000, b);
+	}
+}
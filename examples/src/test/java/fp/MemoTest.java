@@ -0,0 +1,43 @@
+package fp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MemoTest {
+	static final BiFunction<Function<Integer, Long>, Integer, Long> FIB =
+			(self, n) -> n < 2 ? (long) n : self.apply(n - 1) + self.apply(n - 2);
+
+	@Test
+	void testLaterCallsReuseSubresults() {
+		Memo<Integer, Long> fib = Memo.of(FIB, 1000);
+		assertEquals(2880067194370816120L, (long) fib.apply(90));
+		assertEquals(91, fib.misses());
+		assertEquals(91, fib.size());
+
+		// fib(90) and fib(89) come from the cache
+		assertEquals(4660046610375530309L, (long) fib.apply(91));
+		assertEquals(92, fib.misses());
+
+		long hits = fib.hits();
+		assertEquals(2880067194370816120L, (long) fib.apply(90));
+		assertEquals(92, fib.misses());
+		assertEquals(hits + 1, fib.hits());
+	}
+
+	@Test
+	void testSmallCacheComputesEachValueOnce() {
+		Memo<Integer, Long> fib = Memo.concurrent(FIB, 2);
+		assertEquals(832040L, (long) fib.apply(30));
+		assertEquals(31, fib.misses());
+		assertEquals(2, fib.size());
+		assertEquals(29, fib.evictions());
+
+		// the two most recent values, fib(30) and fib(29), are still cached
+		assertEquals(1346269L, (long) fib.apply(31));
+		assertEquals(32, fib.misses());
+	}
+}
@@ -0,0 +1,57 @@
+package fp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentVectorTest {
+	static PersistentVector<Integer> range(int n) {
+		PersistentVector<Integer> v = PersistentVector.empty();
+		for (int i = 0; i < n; i++)
+			v = v.append(i);
+		return v;
+	}
+
+	@Test
+	void testSliceAcrossLeaves() {
+		// several trie levels, and slice bounds that are not leaf-aligned
+		PersistentVector<Integer> v = range(5000);
+		PersistentVector<Integer> s = v.slice(1000, 3333);
+		assertEquals(2333, s.size());
+		for (int i = 0; i < s.size(); i++)
+			assertEquals(1000 + i, (int) s.get(i));
+		assertEquals((1000L + 3332) * 2333 / 2, (long) s.foldl(0L, (acc, x) -> acc + x));
+		assertEquals(s.foldl(0L, (acc, x) -> acc + x), StackSafe.foldl(s.toList(), 0L, (acc, x) -> acc + x));
+
+		PersistentVector<Integer> inner = s.slice(10, 20);
+		assertEquals(1010, (int) inner.get(0));
+		assertEquals(1019, (int) inner.get(9));
+		assertThrows(NoSuchElementException.class, () -> inner.get(10));
+		assertThrows(IndexOutOfBoundsException.class, () -> s.slice(0, 2334));
+	}
+
+	@Test
+	void testSliceIsPersistent() {
+		PersistentVector<Integer> v = range(100);
+		PersistentVector<Integer> s = v.slice(40, 50);
+
+		// appending to a slice overwrites the next slot in its own copy only
+		PersistentVector<Integer> t = s.append(-1);
+		assertEquals(11, t.size());
+		assertEquals(-1, (int) t.get(10));
+		assertEquals(50, (int) v.get(50));
+		assertEquals(10, s.size());
+
+		PersistentVector<Integer> u = s.update(0, -2);
+		assertEquals(-2, (int) u.get(0));
+		assertEquals(40, (int) s.get(0));
+		assertEquals(40, (int) v.get(40));
+
+		assertEquals(0, v.take(0).size());
+		assertEquals(0, v.drop(200).size());
+		assertEquals(99, (int) v.drop(99).get(0));
+	}
+}
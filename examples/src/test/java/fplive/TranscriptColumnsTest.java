@@ -0,0 +1,73 @@
+package fplive;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TranscriptColumnsTest {
+	// deliberately not in matrikel order
+	static TranscriptColumns sample() {
+		return new TranscriptColumns.Builder()
+				.add(2, "Programmieren 1", 100)
+				.add(1, "Programmieren 1", 300)
+				.add(2, "GdI", 270)
+				.add(1, "GdI", 500)
+				.add(2, "Programmieren 1", 130)
+				.add(3, "VV", 200)
+				.build();
+	}
+
+	@Test
+	void testAggregates() {
+		TranscriptColumns t = sample();
+		assertEquals(6, t.count());
+		assertEquals(1500 / 6.0, t.avg().getAsDouble(), 1e-9);
+		assertEquals(100, t.min().getAsInt());
+		assertEquals(500, t.max().getAsInt());
+
+		assertEquals(3, t.count("Programmieren 1"));
+		assertEquals(530 / 3.0, t.avg("Programmieren 1").getAsDouble(), 1e-9);
+		assertEquals(100, t.min("Programmieren 1").getAsInt());
+		assertEquals(500, t.max("GdI").getAsInt());
+
+		// unknown classes have no grades, and say so
+		assertEquals(0, t.count("Mathe"));
+		assertFalse(t.avg("Mathe").isPresent());
+		assertFalse(t.min("Mathe").isPresent());
+		assertFalse(t.max("Mathe").isPresent());
+		assertFalse(new TranscriptColumns.Builder().build().avg().isPresent());
+	}
+
+	@Test
+	void testGroupByClass() {
+		TranscriptColumns t = sample();
+		int p1 = t.classId("Programmieren 1"), gdi = t.classId("GdI"), vv = t.classId("VV");
+		int[] count = new int[3], min = new int[3], max = new int[3];
+		count[p1] = 3;
+		count[gdi] = 2;
+		count[vv] = 1;
+		min[p1] = 100;
+		min[gdi] = 270;
+		min[vv] = 200;
+		max[p1] = 300;
+		max[gdi] = 500;
+		max[vv] = 200;
+		assertArrayEquals(count, t.countByClass());
+		assertArrayEquals(min, t.minByClass());
+		assertArrayEquals(max, t.maxByClass());
+		assertEquals(385.0, t.avgByClass()[gdi], 1e-9);
+	}
+
+	@Test
+	void testTranscriptKeepsInputOrder() {
+		TranscriptColumns t = sample();
+		assertEquals("[Programmieren 1 (100), GdI (270), Programmieren 1 (130)]", t.transcript(2).toString());
+		assertEquals("[Programmieren 1 (300), GdI (500)]", t.transcript(1).toString());
+		assertNull(t.transcript(0));
+		assertNull(t.transcript(4));
+		assertEquals(2, t.records("GdI").size());
+	}
+}
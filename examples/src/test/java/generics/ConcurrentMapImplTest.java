@@ -0,0 +1,142 @@
+package generics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConcurrentMapImplTest {
+	static final int THREADS = 8;
+
+	// start all workers at the same time to maximize contention
+	static void race(int threads, Runnable r) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] ts = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			ts[i] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				r.run();
+			});
+			ts[i].start();
+		}
+		start.countDown();
+		for (Thread t : ts)
+			t.join();
+	}
+
+	@Test
+	void testPutGet() {
+		ConcurrentMapImpl<String, Integer> map = new ConcurrentMapImpl<>();
+		map.put("Hans", 14235);
+		assertEquals(14235, (int) map.get("Hans"));
+		assertNull(map.get("Peter"));
+
+		for (int i = 0; i < 10000; i++)
+			map.put("k" + i, i);
+		for (int i = 0; i < 10000; i++)
+			assertEquals(i, (int) map.get("k" + i));
+		assertEquals(10001, map.size());
+	}
+
+	@Test
+	void testMergeIsAtomic() throws InterruptedException {
+		ConcurrentMapImpl<Integer, Integer> map = new ConcurrentMapImpl<>();
+		final int keys = 100, rounds = 10000;
+
+		race(THREADS, () -> {
+			for (int i = 0; i < rounds; i++)
+				map.merge(i % keys, 1, Integer::sum);
+		});
+
+		// no lost updates: every increment is visible exactly once
+		for (int k = 0; k < keys; k++)
+			assertEquals(THREADS * rounds / keys, (int) map.get(k));
+	}
+
+	@Test
+	void testPutIfAbsentHasSingleWinner() throws InterruptedException {
+		ConcurrentMapImpl<Integer, Long> map = new ConcurrentMapImpl<>();
+		AtomicInteger winners = new AtomicInteger();
+		final int keys = 10000;
+
+		race(THREADS, () -> {
+			long self = Thread.currentThread().getId();
+			for (int k = 0; k < keys; k++) {
+				if (map.putIfAbsent(k, self) == null)
+					winners.incrementAndGet();
+			}
+		});
+
+		assertEquals(keys, winners.get());
+		assertEquals(keys, map.size());
+	}
+
+	@Test
+	void testComputeIfAbsentRunsOnce() throws InterruptedException {
+		ConcurrentMapImpl<Integer, Object> map = new ConcurrentMapImpl<>();
+		AtomicInteger calls = new AtomicInteger();
+		Object[][] seen = new Object[THREADS][1000];
+		AtomicInteger ids = new AtomicInteger();
+
+		race(THREADS, () -> {
+			int id = ids.getAndIncrement();
+			for (int k = 0; k < 1000; k++) {
+				seen[id][k] = map.computeIfAbsent(k, key -> {
+					calls.incrementAndGet();
+					return new Object();
+				});
+			}
+		});
+
+		// every thread observed the same instance per key
+		assertEquals(1000, calls.get());
+		for (int i = 1; i < THREADS; i++)
+			for (int k = 0; k < 1000; k++)
+				assertSame(seen[0][k], seen[i][k]);
+	}
+
+	@Test
+	void testReadsAreLinearizable() throws InterruptedException {
+		// a single writer publishes increasing versions of a key while the table
+		// keeps resizing; a linearizable register never lets a reader observe
+		// an older version after it has seen a newer one
+		ConcurrentMapImpl<Integer, Integer> map = new ConcurrentMapImpl<>(4);
+		final int versions = 200000;
+		AtomicBoolean violated = new AtomicBoolean();
+		map.put(-1, 0);
+
+		Thread writer = new Thread(() -> {
+			for (int v = 1; v <= versions; v++) {
+				map.put(v, v);  // forces resizes underneath the readers
+				map.put(-1, v);
+			}
+		});
+
+		writer.start();
+		race(THREADS - 1, () -> {
+			int last = 0;
+			while (last < versions) {
+				int v = map.get(-1);
+				if (v < last)
+					violated.set(true);
+				// everything put before version v must be visible as well
+				if (v > 0 && map.get(v) == null)
+					violated.set(true);
+				last = v;
+			}
+		});
+		writer.join();
+
+		assertFalse(violated.get());
+	}
+}
@@ -0,0 +1,66 @@
+package generics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedMapImplTest {
+	static void delete(Path base) throws IOException {
+		for (String ext : new String[] {".idx", ".log", ".idx.tmp"})
+			Files.deleteIfExists(base.resolveSibling(base.getFileName() + ext));
+		Files.delete(base.getParent());
+	}
+
+	@Test
+	void testReopenAfterGrow() throws IOException {
+		Path base = Files.createTempDirectory("mapped").resolve("map");
+		try {
+			// well past the initial 1024 slots, so the index is rehashed several times
+			final int n = 10_000;
+			try (MappedMapImpl<String, Integer> map = new MappedMapImpl<>(base, Codec.UTF8, Codec.INT)) {
+				for (int i = 0; i < n; i++)
+					map.put("k" + i, i);
+				map.put("k42", -42);
+				assertEquals(n, map.size());
+				assertEquals(-42, (int) map.get("k42"));
+			}
+
+			try (MappedMapImpl<String, Integer> map = new MappedMapImpl<>(base, Codec.UTF8, Codec.INT)) {
+				assertEquals(n, map.size());
+				for (int i = 0; i < n; i++)
+					assertEquals(i == 42 ? -42 : i, (int) map.get("k" + i));
+				assertNull(map.get("missing"));
+
+				map.put("new", 1);
+			}
+
+			try (MappedMapImpl<String, Integer> map = new MappedMapImpl<>(base, Codec.UTF8, Codec.INT)) {
+				assertEquals(n + 1, map.size());
+				assertEquals(1, (int) map.get("new"));
+			}
+		} finally {
+			delete(base);
+		}
+	}
+
+	@Test
+	void testNullValueLeavesMapUnchanged() throws IOException {
+		Path base = Files.createTempDirectory("mapped").resolve("map");
+		try (MappedMapImpl<String, Integer> map = new MappedMapImpl<>(base, Codec.UTF8, Codec.INT)) {
+			map.put("a", 1);
+			long log = map.logBytes();
+			assertThrows(NullPointerException.class, () -> map.put("b", null));
+			assertEquals(1, map.size());
+			assertNull(map.get("b"));
+			assertEquals(log, map.logBytes());
+		} finally {
+			delete(base);
+		}
+	}
+}